@@ -0,0 +1,41 @@
+package com.library.app.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing at the cost configured in {@code SecurityConfig} (12). Each operation takes a
+ * few hundred milliseconds by design, so iterations are few and long.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BCryptBenchmark {
+
+    @Param("12")
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("john123");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("john123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("john123", hash);
+    }
+}
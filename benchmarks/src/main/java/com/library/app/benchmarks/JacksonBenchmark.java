@@ -0,0 +1,73 @@
+package com.library.app.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.library.model.Book;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization for the paginated book lists and the user endpoints, with an
+ * ObjectMapper built the way Spring Boot builds the application's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<Book> page;
+    private LibraryUser user;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Book> books = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Book book = new Book();
+            book.setId((long) i);
+            book.setTitle("Book title number " + i);
+            book.setAuthor("Author " + (i % 7));
+            book.setIsbn("978-0-00-" + String.format("%06d", i));
+            book.setTotalCopies(3);
+            book.setAvailableCopies(i % 4);
+            book.setAvailable(i % 4 > 0);
+            books.add(book);
+        }
+        page = new PageImpl<>(books, PageRequest.of(0, pageSize, Sort.by("title").ascending()), 10_000);
+
+        user = new LibraryUser();
+        user.setId(42L);
+        user.setUsername("john");
+        user.setPassword("$2a$12$abcdefghijklmnopqrstuv");
+        user.setRoles(EnumSet.of(LibraryUserRoles.ROLE_USER));
+    }
+
+    @Benchmark
+    public byte[] serializeBookPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.app.benchmarks;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.UserPrincipal;
+import com.library.app.auth.service.JWTService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login and token check on every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTService jwtService;
+    private UserPrincipal principal;
+    private Set<LibraryUserRoles> roles;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JWTService();
+        roles = EnumSet.of(LibraryUserRoles.ROLE_USER, LibraryUserRoles.ROLE_ADMIN);
+        LibraryUser user = new LibraryUser();
+        user.setUsername("john");
+        user.setPassword("unused");
+        user.setRoles(roles);
+        principal = new UserPrincipal(user);
+        token = jwtService.generateToken("john", roles);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("john", roles);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token, principal);
+    }
+}
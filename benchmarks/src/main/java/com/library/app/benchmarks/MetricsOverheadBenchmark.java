@@ -0,0 +1,78 @@
+package com.library.app.benchmarks;
+
+import com.library.app.config.QueryCountingStatementInspector;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the metrics added on the request path: the SLO histogram timer behind
+ * {@code http.server.requests}, the {@code library.http.server.queries} summary as
+ * {@code QueryMetricsFilter} records it, and the statement counting done by
+ * {@code QueryCountingStatementInspector}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private static final Duration[] LATENCY_SLO = {
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(200),
+            Duration.ofMillis(500), Duration.ofSeconds(1)};
+    private static final double[] QUERY_SLO = {1, 2, 3, 5, 10, 20, 50};
+
+    private PrometheusMeterRegistry prometheusRegistry;
+    private Timer simpleTimer;
+    private Timer prometheusTimer;
+    private QueryCountingStatementInspector inspector;
+
+    @Setup
+    public void setup() {
+        prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        simpleTimer = Timer.builder("http.server.requests").register(new SimpleMeterRegistry());
+        prometheusTimer = Timer.builder("http.server.requests")
+                .serviceLevelObjectives(LATENCY_SLO)
+                .register(prometheusRegistry);
+        inspector = new QueryCountingStatementInspector();
+    }
+
+    @Benchmark
+    public void timerWithoutHistogram() {
+        simpleTimer.record(120, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public void timerWithSloBuckets() {
+        prometheusTimer.record(120, TimeUnit.MILLISECONDS);
+    }
+
+    // Includes the registry lookup the filter does for each request
+    @Benchmark
+    public void queriesSummaryLookupAndRecord() {
+        DistributionSummary.builder("library.http.server.queries")
+                .tag("method", "GET")
+                .tag("uri", "/api/books")
+                .serviceLevelObjectives(QUERY_SLO)
+                .register(prometheusRegistry)
+                .record(3);
+    }
+
+    // start/stop around three statements, as for a paged book listing
+    @Benchmark
+    public int countStatements() {
+        QueryCountingStatementInspector.start();
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        inspector.inspect("select 3");
+        return QueryCountingStatementInspector.stop();
+    }
+}
@@ -0,0 +1,94 @@
+package com.library.app.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.library.app.common.web.PageResponse;
+import com.library.app.library.model.Book;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book list responses: Spring's {@code PageImpl} against the {@link PageResponse} envelope, as JSON
+ * and CBOR, with and without Blackbird. Payload sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageEnvelopeBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private ObjectMapper json;
+    private ObjectMapper jsonBlackbird;
+    private ObjectMapper cbor;
+    private ObjectMapper cborBlackbird;
+    private Page<Book> page;
+    private PageResponse<Book> envelope;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        json = Jackson2ObjectMapperBuilder.json().build();
+        jsonBlackbird = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        cborBlackbird = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory())
+                .modulesToInstall(new BlackbirdModule()).build();
+
+        List<Book> books = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Book book = new Book();
+            book.setId((long) i);
+            book.setTitle("Book title number " + i);
+            book.setAuthor("Author " + (i % 7));
+            book.setIsbn("978-0-00-" + String.format("%06d", i));
+            book.setTotalCopies(3);
+            book.setAvailableCopies(i % 4);
+            book.setAvailable(i % 4 > 0);
+            books.add(book);
+        }
+        page = new PageImpl<>(books, PageRequest.of(0, pageSize, Sort.by("title").ascending()), 10_000);
+        envelope = PageResponse.of(page);
+
+        System.out.printf("%n# Payload bytes (pageSize=%d): pageImpl json=%d, envelope json=%d, envelope cbor=%d%n",
+                pageSize, json.writeValueAsBytes(page).length, json.writeValueAsBytes(envelope).length,
+                cbor.writeValueAsBytes(envelope).length);
+    }
+
+    @Benchmark
+    public byte[] pageImplJson() throws JsonProcessingException {
+        return json.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] envelopeJson() throws JsonProcessingException {
+        return json.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public byte[] envelopeJsonBlackbird() throws JsonProcessingException {
+        return jsonBlackbird.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public byte[] envelopeCbor() throws JsonProcessingException {
+        return cbor.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public byte[] envelopeCborBlackbird() throws JsonProcessingException {
+        return cborBlackbird.writeValueAsBytes(envelope);
+    }
+}
@@ -0,0 +1,38 @@
+package com.library.app.benchmarks;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.UserPrincipal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authority mapping, called by the JWT filter and the authorization checks of every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserPrincipalBenchmark {
+
+    private UserPrincipal principal;
+
+    @Setup
+    public void setup() {
+        LibraryUser user = new LibraryUser();
+        user.setUsername("admin");
+        user.setRoles(EnumSet.of(LibraryUserRoles.ROLE_USER, LibraryUserRoles.ROLE_ADMIN));
+        principal = new UserPrincipal(user);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.getAuthorities();
+    }
+}
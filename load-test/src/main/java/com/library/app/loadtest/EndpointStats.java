@@ -0,0 +1,67 @@
+package com.library.app.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts for one scenario. Latencies are recorded in microseconds from the
+ * intended send time, so queueing inside the generator or the server is not hidden
+ * (no coordinated omission).
+ */
+class EndpointStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Recorder latency = new Recorder(MAX_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    void record(long micros, int status) {
+        latency.recordValue(Math.min(micros, MAX_TRACKABLE_MICROS));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status >= 400 || status < 0) {
+            errors.increment();
+        }
+    }
+
+    // Not sent because max-in-flight was reached; counted as an error
+    void dropped() {
+        dropped.increment();
+        errors.increment();
+    }
+
+    // Not applicable at the time, e.g. a return with no loan outstanding
+    void skipped() {
+        skipped.increment();
+    }
+
+    // Takes a snapshot; responses that arrive afterwards are not included
+    Map<String, Object> summary(double seconds) {
+        Histogram latency = this.latency.getIntervalHistogram();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long count = latency.getTotalCount();
+        summary.put("count", count);
+        summary.put("throughput", count / seconds);
+        summary.put("errors", errors.sum());
+        summary.put("dropped", dropped.sum());
+        summary.put("skipped", skipped.sum());
+        Map<Integer, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, n) -> byStatus.put(status, n.sum()));
+        summary.put("statuses", byStatus);
+        summary.put("meanMs", latency.getMean() / 1000.0);
+        summary.put("p50Ms", latency.getValueAtPercentile(50) / 1000.0);
+        summary.put("p99Ms", latency.getValueAtPercentile(99) / 1000.0);
+        summary.put("p999Ms", latency.getValueAtPercentile(99.9) / 1000.0);
+        summary.put("maxMs", latency.getMaxValue() / 1000.0);
+        return summary;
+    }
+}
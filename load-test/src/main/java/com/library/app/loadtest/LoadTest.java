@@ -0,0 +1,242 @@
+package com.library.app.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.app.AppApplication;
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.JWTService;
+import com.library.app.library.model.Book;
+import com.library.app.library.service.BookService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boots the application on an embedded H2 database, seeds users and books, then sends a weighted
+ * mix of requests at a fixed arrival rate (open model: requests are sent on schedule whether or
+ * not earlier ones have completed) and writes per-scenario latency percentiles and errors as
+ * JSON.
+ * <p>
+ * Usage: {@code mvn exec:java -Dexec.args="--rate=300 --duration=PT2M"}; see
+ * {@link LoadTestOptions} for all options.
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "loadtest123";
+    private static final String[] WORDS = {
+            "history", "garden", "river", "night", "code", "stone", "winter", "empire", "light", "machine",
+            "ocean", "silent", "journey", "city", "fire", "island", "shadow", "letters", "mountain", "dream"};
+
+    private final LoadTestOptions options;
+    private final Random random;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final Map<Scenario, EndpointStats> stats = new EnumMap<>(Scenario.class);
+    private final ConcurrentLinkedQueue<Loan> loans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private String baseUrl;
+    private List<String> usernames;
+    private List<String> tokens;
+    private long[] bookIds;
+
+    LoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.random = new Random(options.seed());
+        for (Scenario scenario : Scenario.values()) {
+            stats.put(scenario, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .profiles("loadtest")
+                .run()) {
+            LoadTest loadTest = new LoadTest(options);
+            loadTest.seed(context);
+            loadTest.run();
+            loadTest.writeReport();
+        }
+    }
+
+    void seed(ConfigurableApplicationContext context) {
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        // One BCrypt hash for every user; hashing each one at cost 12 would dominate the setup
+        String hash = new BCryptPasswordEncoder(12).encode(PASSWORD);
+        List<LibraryUser> users = new ArrayList<>(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            LibraryUser user = new LibraryUser();
+            user.setUsername("load" + i);
+            user.setPassword(hash);
+            user.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+            users.add(user);
+        }
+        context.getBean(LibraryUserRepository.class).saveAll(users);
+
+        JWTService jwtService = context.getBean(JWTService.class);
+        usernames = users.stream().map(LibraryUser::getUsername).toList();
+        tokens = usernames.stream().map(name -> jwtService.generateToken(name, Set.of(LibraryUserRoles.ROLE_USER))).toList();
+
+        BookService bookService = context.getBean(BookService.class);
+        bookIds = new long[options.books()];
+        for (int i = 0; i < options.books(); i++) {
+            Book book = new Book();
+            book.setTitle(word() + " " + word() + " " + i);
+            book.setAuthor("Author " + random.nextInt(Math.max(1, options.books() / 10)));
+            book.setIsbn("LOAD-" + i);
+            book.setTotalCopies(options.copiesPerBook());
+            bookIds[i] = bookService.saveBook(book).getId();
+        }
+    }
+
+    void run() {
+        List<Scenario> weighted = new ArrayList<>();
+        options.mix().forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        double next = start;
+        while (next < end) {
+            long intended = (long) next;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario scenario = weighted.get(random.nextInt(weighted.size()));
+            send(scenario, intended, intended >= measureFrom);
+            next += options.poisson()
+                    ? -Math.log(1 - random.nextDouble()) * meanIntervalNanos
+                    : meanIntervalNanos;
+        }
+
+        // Let the tail of the run complete before reporting
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private void send(Scenario scenario, long intended, boolean measured) {
+        EndpointStats endpoint = stats.get(scenario);
+        int user = random.nextInt(usernames.size());
+        HttpRequest request;
+        Loan loan = null;
+        switch (scenario) {
+            case LOGIN -> request = HttpRequest.newBuilder(uri("/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + usernames.get(user) + "\",\"password\":\"" + PASSWORD + "\"}"))
+                    .build();
+            case SEARCH -> request = authorized("/api/books/title/" + word() + "?page=0&size=20", user).GET().build();
+            case LIST -> request = authorized("/api/books?page=" + random.nextInt(10) + "&size=20", user).GET().build();
+            case GET -> request = authorized("/api/books/" + book(), user).GET().build();
+            case BORROW -> {
+                loan = new Loan(user, book());
+                request = authorized("/api/books/" + loan.bookId() + "/borrow", user)
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+            }
+            case RETURN -> {
+                Loan outstanding = loans.poll();
+                if (outstanding == null) {
+                    if (measured) {
+                        endpoint.skipped();
+                    }
+                    return;
+                }
+                request = authorized("/api/books/" + outstanding.bookId() + "/return", outstanding.user())
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+            }
+            default -> throw new IllegalStateException("Unknown scenario " + scenario);
+        }
+
+        if (inFlight.get() >= options.maxInFlight()) {
+            if (measured) {
+                endpoint.dropped();
+            }
+            return;
+        }
+        inFlight.incrementAndGet();
+        Loan borrowed = loan;
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    int status = failure == null ? response.statusCode() : -1;
+                    if (measured) {
+                        endpoint.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended), status);
+                    }
+                    if (borrowed != null && status == 200) {
+                        loans.add(borrowed);
+                    }
+                    inFlight.decrementAndGet();
+                    return null;
+                });
+    }
+
+    void writeReport() throws Exception {
+        double seconds = options.duration().toMillis() / 1000.0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((scenario, endpoint) -> {
+            if (options.mix().containsKey(scenario)) {
+                endpoints.put(scenario.name().toLowerCase(), endpoint.summary(seconds));
+            }
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options.describe());
+        report.put("endpoints", endpoints);
+        // Still outstanding after the drain period; neither recorded nor counted as errors
+        report.put("unfinished", inFlight.get());
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (options.report().getParent() != null) {
+            Files.createDirectories(options.report().getParent());
+        }
+        mapper.writeValue(options.report().toFile(), report);
+        System.out.println(mapper.writeValueAsString(endpoints));
+        System.out.println("Report written to " + options.report().toAbsolutePath());
+    }
+
+    private HttpRequest.Builder authorized(String path, int user) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + tokens.get(user));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private long book() {
+        return bookIds[random.nextInt(bookIds.length)];
+    }
+
+    private record Loan(int user, long bookId) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.library.app.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}. Every option has a default, so a bare run
+ * is a valid smoke test.
+ */
+record LoadTestOptions(double rate,
+                       Duration warmup,
+                       Duration duration,
+                       int users,
+                       int books,
+                       int copiesPerBook,
+                       long seed,
+                       boolean poisson,
+                       int maxInFlight,
+                       Map<Scenario, Integer> mix,
+                       Path report) {
+
+    static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return new LoadTestOptions(
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Integer.parseInt(values.getOrDefault("users", "100")),
+                Integer.parseInt(values.getOrDefault("books", "5000")),
+                Integer.parseInt(values.getOrDefault("copies", "3")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                !"uniform".equals(values.getOrDefault("arrivals", "poisson")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "5000")),
+                parseMix(values.getOrDefault("mix", "login:1,search:25,list:35,get:25,borrow:7,return:7")),
+                Path.of(values.getOrDefault("report", "target/load-report.json")));
+    }
+
+    // "login:1,search:25,..." -> weights per scenario; scenarios left out get no traffic
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            weights.put(Scenario.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("rate", rate);
+        description.put("arrivals", poisson ? "poisson" : "uniform");
+        description.put("warmup", warmup.toString());
+        description.put("duration", duration.toString());
+        description.put("users", users);
+        description.put("books", books);
+        description.put("copiesPerBook", copiesPerBook);
+        description.put("seed", seed);
+        description.put("maxInFlight", maxInFlight);
+        description.put("mix", mix);
+        return description;
+    }
+}
@@ -0,0 +1,13 @@
+package com.library.app.loadtest;
+
+/**
+ * One kind of request in the traffic mix.
+ */
+enum Scenario {
+    LOGIN,
+    SEARCH,
+    LIST,
+    GET,
+    BORROW,
+    RETURN
+}
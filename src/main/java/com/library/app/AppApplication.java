@@ -2,8 +2,13 @@ package com.library.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The R2DBC catalog pool is managed by ReactiveCatalogDatabase; a ConnectionFactory bean would
+// make Boot back off from the JDBC DataSource and its JPA transaction manager
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class AppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,14 @@
+package com.library.app.auth.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * One line of the audit trail, as stored in the segment files and returned by the query
+ * endpoint.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AuditEntry(Instant timestamp, AuditEventType type, String actor, Long subjectId, String subject,
+                         String detail, String remoteAddress) {
+}
@@ -0,0 +1,13 @@
+package com.library.app.auth.audit;
+
+public enum AuditEventType {
+    LOGIN_SUCCESS,
+    LOGIN_FAILURE,
+    USER_REGISTERED,
+    USERNAME_CHANGED,
+    PASSWORD_CHANGED,
+    ACCOUNT_DISABLED,
+    ACCOUNT_ENABLED,
+    ACCOUNT_EXPIRED,
+    ACCOUNT_DELETED
+}
@@ -0,0 +1,149 @@
+package com.library.app.auth.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.app.common.ring.BatchEventProcessor;
+import com.library.app.common.ring.RingBuffer;
+import com.library.app.common.ring.WaitStrategy;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Structured security audit trail.
+ * <p>
+ * Callers fill a pre-allocated {@link AuditRecord} slot of a {@link RingBuffer} and return;
+ * consumer threads append the events to memory-mapped segment files ({@link AuditSegmentStore})
+ * and, when {@code library.audit.db-sink} is on, to the {@code audit_events} table.
+ */
+@Component
+public class AuditLog implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    // Actor of events raised without an authenticated user, e.g. by scheduled jobs
+    public static final String SYSTEM = "system";
+
+    private final RingBuffer<AuditRecord> ringBuffer;
+    private final AuditSegmentStore segmentStore;
+    private final List<BatchEventProcessor<AuditRecord>> processors = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public AuditLog(@Value("${library.audit.directory:audit}") Path directory,
+                    @Value("${library.audit.segment-size:16777216}") int segmentSize,
+                    @Value("${library.audit.max-segments:16}") int maxSegments,
+                    @Value("${library.audit.fsync:true}") boolean fsync,
+                    @Value("${library.audit.buffer-size:4096}") int bufferSize,
+                    @Value("${library.audit.max-batch-size:256}") int maxBatchSize,
+                    @Value("${library.audit.db-sink:false}") boolean dbSink,
+                    ObjectMapper objectMapper,
+                    JdbcTemplate jdbcTemplate,
+                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.ringBuffer = new RingBuffer<>(bufferSize, AuditRecord::new, new WaitStrategy.Blocking());
+        this.segmentStore = new AuditSegmentStore(directory, segmentSize, maxSegments, fsync, objectMapper);
+
+        // Processors gate the ring from construction on, so nothing recorded before start() is lost
+        processors.add(new BatchEventProcessor<>("segments", ringBuffer, segmentStore, maxBatchSize));
+        if (dbSink) {
+            processors.add(new BatchEventProcessor<>("database", ringBuffer, new JdbcAuditSink(jdbcTemplate), maxBatchSize));
+        }
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    public void record(AuditEventType type, long subjectId, String subject, String detail) {
+        record(type, currentActor(), subjectId, subject, detail);
+    }
+
+    /**
+     * Records an event. Does not allocate beyond what the caller passes in; parks briefly only
+     * when the slowest sink is a full buffer behind.
+     */
+    public void record(AuditEventType type, String actor, long subjectId, String subject, String detail) {
+        String remoteAddress = currentRemoteAddress();
+        long sequence = ringBuffer.next();
+        try {
+            ringBuffer.get(sequence).set(System.currentTimeMillis(), type, actor, subjectId, subject, detail, remoteAddress);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    // Recent entries matching the filter, newest first
+    public List<AuditEntry> query(Predicate<AuditEntry> filter, int limit) throws IOException {
+        return segmentStore.query(filter, limit);
+    }
+
+    // Events recorded but not yet written by the slowest sink
+    public long getQueueDepth() {
+        return ringBuffer.depth();
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : SYSTEM;
+    }
+
+    private static String currentRemoteAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : null;
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        Gauge.builder("library.audit.queue.depth", this, AuditLog::getQueueDepth)
+                .description("Audit events not yet written by the slowest sink")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        for (BatchEventProcessor<AuditRecord> processor : processors) {
+            Thread thread = new Thread(processor, "audit-" + processor.getName());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        running = true;
+        logger.info("Audit log started: bufferSize={}, sinks={}", ringBuffer.getBufferSize(), processors.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        processors.forEach(BatchEventProcessor::halt);
+        for (Thread thread : threads) {
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+        try {
+            segmentStore.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the audit segment: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
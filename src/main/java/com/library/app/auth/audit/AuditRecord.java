@@ -0,0 +1,68 @@
+package com.library.app.auth.audit;
+
+import java.time.Instant;
+
+/**
+ * Ring buffer slot of an audit event. Instances are pre-allocated and reused by
+ * {@link AuditLog}; handlers must copy what they need before {@code onEvent} returns.
+ */
+public final class AuditRecord {
+
+    // Marks the absence of a subject id, e.g. for failed logins of unknown users
+    public static final long NO_SUBJECT = -1L;
+
+    private long timestamp;
+    private AuditEventType type;
+    private String actor;
+    private long subjectId;
+    private String subject;
+    private String detail;
+    private String remoteAddress;
+
+    void set(long timestamp, AuditEventType type, String actor, long subjectId, String subject,
+             String detail, String remoteAddress) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.actor = actor;
+        this.subjectId = subjectId;
+        this.subject = subject;
+        this.detail = detail;
+        this.remoteAddress = remoteAddress;
+    }
+
+    // Epoch millis of the event
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public AuditEventType getType() {
+        return type;
+    }
+
+    // Username of whoever caused the event
+    public String getActor() {
+        return actor;
+    }
+
+    public long getSubjectId() {
+        return subjectId;
+    }
+
+    // Username of the account the event is about
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public AuditEntry toEntry() {
+        return new AuditEntry(Instant.ofEpochMilli(timestamp), type, actor,
+                subjectId == NO_SUBJECT ? null : subjectId, subject, detail, remoteAddress);
+    }
+}
@@ -0,0 +1,198 @@
+package com.library.app.auth.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.app.common.ring.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Audit trail in local segment files of newline-delimited JSON.
+ * <p>
+ * The active segment is memory-mapped at its full size, so an append is a copy into the page
+ * cache; with {@code fsync} the mapping is forced to disk once per consumed batch rather than
+ * per event. A segment that cannot take the next line is closed and a new one started; the
+ * unused tail stays zero-filled, which is where readers stop. Only the newest
+ * {@code maxSegments} segments are kept.
+ */
+public class AuditSegmentStore implements EventHandler<AuditRecord>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSegmentStore.class);
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public AuditSegmentStore(Path directory, int segmentSize, int maxSegments, boolean fsync, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            // Never append to a segment of a previous run; its tail may be torn
+            segmentNumber = segments.isEmpty() ? 0 : number(segments.get(segments.size() - 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void onEvent(AuditRecord record, long sequence, boolean endOfBatch) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(record.toEntry());
+        if (line.length + 1 > segmentSize) {
+            logger.warn("Dropping audit event {} of {} bytes, larger than a segment", record.getType(), line.length);
+        } else {
+            if (buffer == null || buffer.remaining() < line.length + 1) {
+                roll();
+            }
+            buffer.put(line).put((byte) '\n');
+        }
+        if (endOfBatch && fsync && buffer != null) {
+            buffer.force();
+        }
+    }
+
+    private void roll() throws IOException {
+        closeSegment();
+        segmentNumber++;
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, segmentNumber, SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+
+    /**
+     * Returns up to {@code limit} entries matching the filter, newest first. Segments are
+     * memory-mapped and walked backwards from their last complete line, so a query stops as soon
+     * as it has enough entries and only copies one line at a time onto the heap.
+     */
+    public List<AuditEntry> query(Predicate<AuditEntry> filter, int limit) throws IOException {
+        List<Path> segments = segments();
+        Collections.reverse(segments);
+        List<AuditEntry> result = new ArrayList<>();
+        byte[] line = new byte[1024];
+        for (Path segment : segments) {
+            if (result.size() >= limit) {
+                break;
+            }
+            line = readNewestFirst(segment, filter, limit, result, line);
+        }
+        return result;
+    }
+
+    // Adds matching entries of one segment to result; returns the line buffer, grown if needed
+    private byte[] readNewestFirst(Path segment, Predicate<AuditEntry> filter, int limit, List<AuditEntry> result,
+                                   byte[] line) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ)) {
+            data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+        } catch (NoSuchFileException e) {
+            // Rotated away while listing
+            return line;
+        }
+        // A line without its newline is still being written
+        int end = dataEnd(data);
+        while (end > 0 && data.get(end - 1) != '\n') {
+            end--;
+        }
+        int newline = end - 1;
+        while (newline >= 0 && result.size() < limit) {
+            int start = newline;
+            while (start > 0 && data.get(start - 1) != '\n') {
+                start--;
+            }
+            int length = newline - start;
+            if (length > line.length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            data.get(start, line, 0, length);
+            if (length > 0) {
+                try {
+                    AuditEntry entry = objectMapper.readValue(line, 0, length, AuditEntry.class);
+                    if (filter.test(entry)) {
+                        result.add(entry);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable audit line in {}: {}", segment.getFileName(), e.getMessage());
+                }
+            }
+            newline = start - 1;
+        }
+        return line;
+    }
+
+    // Lines never contain a zero byte and the unused tail is zero-filled: binary search its start
+    private static int dataEnd(MappedByteBuffer data) {
+        int low = 0;
+        int high = data.capacity();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (data.get(middle) == 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        }
+    }
+
+    private static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
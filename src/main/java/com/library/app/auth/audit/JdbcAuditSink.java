@@ -0,0 +1,41 @@
+package com.library.app.auth.audit;
+
+import com.library.app.common.ring.EventHandler;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies audit events into the {@code audit_events} table, one JDBC batch per consumed batch of
+ * the ring. A failed batch is logged by the processor and not retried; the segment files stay
+ * the primary record.
+ */
+public class JdbcAuditSink implements EventHandler<AuditRecord> {
+
+    private static final String INSERT = "insert into audit_events " +
+            "(id, occurred_at, type, actor, subject_id, subject, detail, remote_address) " +
+            "values (nextval('audit_events_seq'), ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Object[]> batch = new ArrayList<>();
+
+    public JdbcAuditSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void onEvent(AuditRecord record, long sequence, boolean endOfBatch) {
+        batch.add(new Object[]{new Timestamp(record.getTimestamp()), record.getType().name(), record.getActor(),
+                record.getSubjectId() == AuditRecord.NO_SUBJECT ? null : record.getSubjectId(),
+                record.getSubject(), record.getDetail(), record.getRemoteAddress()});
+        if (endOfBatch) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT, batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
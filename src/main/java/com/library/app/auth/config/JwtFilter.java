@@ -1,7 +1,10 @@
 package com.library.app.auth.config;
 
+import com.library.app.auth.model.UserPrincipal;
 import com.library.app.auth.service.AuthLibraryUserService;
 import com.library.app.auth.service.JWTService;
+import com.library.app.auth.service.UserActivityTracker;
+import com.library.app.auth.service.UserPrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,7 +15,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -30,6 +32,12 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private ApplicationContext context;
 
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private UserActivityTracker activityTracker;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -61,16 +69,19 @@ public class JwtFilter extends OncePerRequestFilter {
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
                 AuthLibraryUserService userService = context.getBean(AuthLibraryUserService.class);
-                UserDetails userDetails = userService.loadUserByUsername(username);
+                UserPrincipal userDetails = principalCache.get(username, userService::loadUserByUsername);
                 logger.debug("✅ Loaded user details for: {}", username);
 
-                if (jwtService.validateToken(token, userDetails)) {
+                if (!userDetails.isEnabled() || !userDetails.isAccountNonExpired()) {
+                    logger.warn("❌ Account disabled or expired for user: {}", username);
+                } else if (jwtService.validateToken(token, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails, null, userDetails.getAuthorities());
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    activityTracker.record(userDetails.getId());
 
                     logger.info("✅ Token validated successfully for user: {}", username);
                 } else {
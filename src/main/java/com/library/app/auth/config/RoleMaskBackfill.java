@@ -0,0 +1,111 @@
+package com.library.app.auth.config;
+
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.library.model.SweeperWatermark;
+import com.library.app.library.repository.SweeperWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off migration for databases created while roles lived in the {@code user_roles} collection
+ * table: copies each user's roles into {@code users.role_mask}. Runs in chunks and only touches
+ * users whose mask is still empty, recording its position in a {@link SweeperWatermark} so a
+ * restart resumes where it stopped; once the walk is complete the watermark is parked at the end
+ * and later boots skip the scan. The old table is left in place and can be dropped once no
+ * instance runs the previous version.
+ */
+@Component
+public class RoleMaskBackfill implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleMaskBackfill.class);
+    private static final int CHUNK_SIZE = 1000;
+    private static final LibraryUserRoles[] ROLES = LibraryUserRoles.values();
+    static final String WATERMARK = "role-mask-backfill";
+    // Position of a completed backfill
+    static final long DONE = Long.MAX_VALUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SweeperWatermarkRepository watermarkRepository;
+
+    @Override
+    public void run(String... args) {
+        if (!hasLegacyRolesTable()) {
+            return;
+        }
+        long lastId = watermarkRepository.findById(WATERMARK).map(SweeperWatermark::getLastId).orElse(0L);
+        if (lastId == DONE) {
+            return;
+        }
+
+        long migrated = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "select u.id from users u " +
+                            "where u.id > ? and u.role_mask = 0 and exists (select 1 from user_roles r where r.user_id = u.id) " +
+                            "order by u.id fetch first " + CHUNK_SIZE + " rows only", Long.class, lastId);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long from = ids.get(0);
+            long to = ids.get(ids.size() - 1);
+            transactionTemplate.executeWithoutResult(status -> {
+                migrateChunk(from, to);
+                advance(to);
+            });
+            lastId = to;
+            migrated += ids.size();
+        }
+        transactionTemplate.executeWithoutResult(status -> advance(DONE));
+
+        if (migrated > 0) {
+            logger.info("Copied roles of {} users from user_roles into the role mask column", migrated);
+        }
+    }
+
+    private void migrateChunk(long from, long to) {
+        Map<Long, Integer> masks = new HashMap<>();
+        jdbcTemplate.query("select r.user_id, r.role from user_roles r join users u on u.id = r.user_id " +
+                "where r.user_id between ? and ? and u.role_mask = 0", rs -> {
+            int ordinal = rs.getInt("role");
+            if (ordinal >= 0 && ordinal < ROLES.length) {
+                masks.merge(rs.getLong("user_id"), ROLES[ordinal].bit(), (a, b) -> a | b);
+            }
+        }, from, to);
+
+        List<Object[]> updates = new ArrayList<>(masks.size());
+        masks.forEach((userId, mask) -> updates.add(new Object[]{mask, userId}));
+        jdbcTemplate.batchUpdate("update users set role_mask = ? where id = ? and role_mask = 0", updates);
+    }
+
+    private void advance(long position) {
+        SweeperWatermark watermark = watermarkRepository.findById(WATERMARK)
+                .orElseGet(() -> new SweeperWatermark(WATERMARK));
+        watermark.setLastId(position);
+        watermark.setUpdatedAt(Instant.now());
+        watermarkRepository.save(watermark);
+    }
+
+    private boolean hasLegacyRolesTable() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables where lower(table_name) = 'user_roles'",
+                Integer.class);
+        return tables != null && tables > 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.app.auth.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expression indexes behind the admin user directory on PostgreSQL, which Hibernate's schema
+ * update cannot declare:
+ * <ul>
+ *     <li>{@code uk_users_username_lower} makes usernames unique regardless of case and serves
+ *     case-insensitive lookups</li>
+ *     <li>{@code idx_users_username_prefix} serves {@code lower(username) like 'q%'}</li>
+ *     <li>{@code idx_users_username_trgm} serves {@code lower(username) like '%q%'}; needs the
+ *     {@code pg_trgm} extension</li>
+ * </ul>
+ * Each index is created on its own, so a missing extension or clashing usernames only cost that
+ * index. A no-op on other databases and once the indexes exist.
+ */
+@Component
+public class UserDirectoryIndexes implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryIndexes.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            return;
+        }
+
+        create("uk_users_username_lower",
+                "create unique index if not exists uk_users_username_lower on users (lower(username))");
+        create("idx_users_username_prefix",
+                "create index if not exists idx_users_username_prefix on users (lower(username) text_pattern_ops)");
+        if (create("pg_trgm", "create extension if not exists pg_trgm")) {
+            create("idx_users_username_trgm",
+                    "create index if not exists idx_users_username_trgm on users using gin (lower(username) gin_trgm_ops)");
+        }
+    }
+
+    private boolean create(String name, String ddl) {
+        try {
+            jdbcTemplate.execute(ddl);
+            return true;
+        } catch (DataAccessException e) {
+            logger.warn("Could not create {}; user directory searches fall back to scans: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
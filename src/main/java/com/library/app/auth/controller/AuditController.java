@@ -0,0 +1,55 @@
+package com.library.app.auth.controller;
+
+import com.library.app.auth.audit.AuditEntry;
+import com.library.app.auth.audit.AuditEventType;
+import com.library.app.auth.audit.AuditLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditController.class);
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    /**
+     * Recent audit events from the local segment files, newest first
+     */
+    @GetMapping
+    public ResponseEntity<?> getAuditEvents(@RequestParam(required = false) AuditEventType type,
+                                            @RequestParam(required = false) String actor,
+                                            @RequestParam(required = false) String subject,
+                                            @RequestParam(required = false) Instant from,
+                                            @RequestParam(required = false) Instant to,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+
+        Predicate<AuditEntry> filter = entry -> (type == null || entry.type() == type)
+                && (actor == null || actor.equals(entry.actor()))
+                && (subject == null || subject.equals(entry.subject()))
+                && (from == null || !entry.timestamp().isBefore(from))
+                && (to == null || entry.timestamp().isBefore(to));
+        try {
+            List<AuditEntry> entries = auditLog.query(filter, limit);
+            return ResponseEntity.ok(entries);
+        } catch (IOException e) {
+            logger.error("Failed to read the audit log: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to read the audit log.");
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.library.app.auth.controller;
 
+import com.library.app.auth.model.BulkUserRequest;
 import com.library.app.auth.model.LibraryUser;
 import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.UserDirectoryFilter;
 import com.library.app.auth.service.LibraryUserService;
+import com.library.app.common.web.KeysetResponse;
+import com.library.app.common.web.PageResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,14 +17,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.IntSupplier;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    private static final int MAX_SEARCH_SIZE = 100;
 
     @Autowired
     private LibraryUserService libraryUserService;
@@ -44,7 +52,7 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
 
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok(PageResponse.of(users));
     }
 
     // ---------------- GET USER (BY ID OR USERNAME) ----------------
@@ -126,6 +134,36 @@ public class UserController {
     }
     }
 
+    // ---------------- BULK DISABLE / ENABLE / EXPIRE ----------------
+    // Body selects users by "ids" or by directory filters; responds with the number changed
+    @PatchMapping("/bulk/disable")
+    public ResponseEntity<?> bulkDisable(@RequestBody BulkUserRequest request) {
+        logger.info("PATCH /users/bulk/disable called with {}", request);
+        return bulk("disabled", () -> libraryUserService.bulkSetEnabled(request, false));
+    }
+
+    @PatchMapping("/bulk/enable")
+    public ResponseEntity<?> bulkEnable(@RequestBody BulkUserRequest request) {
+        logger.info("PATCH /users/bulk/enable called with {}", request);
+        return bulk("enabled", () -> libraryUserService.bulkSetEnabled(request, true));
+    }
+
+    @PatchMapping("/bulk/expire")
+    public ResponseEntity<?> bulkExpire(@RequestBody BulkUserRequest request) {
+        logger.info("PATCH /users/bulk/expire called with {}", request);
+        return bulk("expired", () -> libraryUserService.bulkExpire(request));
+    }
+
+    private ResponseEntity<?> bulk(String outcome, IntSupplier update) {
+        try {
+            int updated = update.getAsInt();
+            logger.info("Bulk update: {} users {}", updated, outcome);
+            return ResponseEntity.ok(Map.of(outcome, updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // ---------------- DISABLE USER ----------------
     @PatchMapping("/{id}/disable")
     public ResponseEntity<?> disableUser(@PathVariable Long id) {
@@ -176,14 +214,11 @@ public class UserController {
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         logger.info("DELETE /users/{} called", id);
         try {
-            Optional<LibraryUser> existing = libraryUserService.getUserById(id);
-            if (existing.isEmpty()) {
+            if (!libraryUserService.deleteUser(id)) {
                 logger.warn("User not found with ID: {}", id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
             }
-
-            libraryUserService.deleteUser(id);
-            logger.info("User deleted: {}", existing.get());
+            logger.info("User deleted: {}", id);
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
 
         } catch (Exception e) {
@@ -234,30 +269,41 @@ public class UserController {
         }
     }
 
-    // ---------------- SEARCH USERS BY NAME (PAGINATED) ----------------
+    // ---------------- USER DIRECTORY SEARCH (KEYSET) ----------------
+    // Filters are optional; pass the returned "next" as "after" for the following slice
     @GetMapping("/search")
-    public ResponseEntity<?> searchUsersByName(@RequestParam String name,
-                                               @RequestParam(defaultValue = "0") int page,
-                                               @RequestParam(defaultValue = "10") int size) {
-        logger.info("GET /users/search called with name='{}', page={}, size={}", name, page, size);
-
-        if (name == null || name.trim().isEmpty()) {
-            logger.warn("Empty search name");
-            return ResponseEntity.badRequest().body("Search name cannot be empty.");
-        }
-        if (page < 0 || size <= 0) {
-            logger.warn("Invalid pagination parameters: page={}, size={}", page, size);
-            return ResponseEntity.badRequest().body("Invalid pagination parameters.");
+    public ResponseEntity<?> searchUsers(@RequestParam(required = false) String name,
+                                         @RequestParam(defaultValue = "false") boolean prefix,
+                                         @RequestParam(required = false) Boolean enabled,
+                                         @RequestParam(required = false) Boolean expired,
+                                         @RequestParam(required = false) LibraryUserRoles role,
+                                         @RequestParam(required = false) Instant createdBefore,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "10") int size,
+                                         @RequestParam(defaultValue = "false") boolean count) {
+        logger.info("GET /users/search called with name='{}', prefix={}, enabled={}, expired={}, role={}, after='{}', size={}",
+                name, prefix, enabled, expired, role, after, size);
+
+        if (size <= 0 || size > MAX_SEARCH_SIZE) {
+            logger.warn("Invalid search size: {}", size);
+            return ResponseEntity.badRequest().body("Size must be between 1 and " + MAX_SEARCH_SIZE + ".");
         }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("username").ascending());
-        Page<LibraryUser> users = libraryUserService.findByUsername(name, pageable);
+        UserDirectoryFilter filter = new UserDirectoryFilter(name, prefix, enabled, expired, role, createdBefore);
+        // One extra row tells whether there is a next slice without counting
+        List<LibraryUser> users = libraryUserService.searchDirectory(filter, after, size + 1);
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
+        }
 
-        logger.info("Found {} users matching '{}'", users.getTotalElements(), name);
-        if (users.isEmpty()) {
+        logger.info("Found {} users matching '{}'", users.size(), name);
+        if (users.isEmpty() && !count) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
 
-        return ResponseEntity.ok(users);
+        String next = hasNext ? users.get(users.size() - 1).getUsername() : null;
+        Long total = count ? libraryUserService.countDirectory(filter) : null;
+        return ResponseEntity.ok(new KeysetResponse<>(users, size, next, total));
     }
 }
@@ -0,0 +1,36 @@
+package com.library.app.auth.model;
+
+import com.library.app.auth.audit.AuditEventType;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+// Rows of the optional database audit sink, written in batches by JdbcAuditSink
+@Entity(name = "audit_events")
+@Table(indexes = @Index(name = "idx_audit_events_occurred_at", columnList = "occurred_at"))
+@Data
+public class AuditEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AuditEventType type;
+
+    private String actor;
+
+    private Long subjectId;
+
+    private String subject;
+
+    @Column(length = 1024)
+    private String detail;
+
+    @Column(length = 64)
+    private String remoteAddress;
+}
@@ -0,0 +1,25 @@
+package com.library.app.auth.model;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Accounts targeted by a bulk state change: either explicit {@code ids} or a filter with the
+ * same criteria as the user directory search, not both.
+ */
+@Data
+public class BulkUserRequest {
+    private List<Long> ids;
+    private String name;
+    private boolean prefix;
+    private Boolean enabled;
+    private Boolean expired;
+    private LibraryUserRoles role;
+    private Instant createdBefore;
+
+    public UserDirectoryFilter toFilter() {
+        return new UserDirectoryFilter(name, prefix, enabled, expired, role, createdBefore);
+    }
+}
@@ -1,12 +1,18 @@
 package com.library.app.auth.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.library.app.library.branch.BranchContext;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
 
+import java.time.Instant;
 import java.util.Set;
 
 @Entity(name = "users")
+@Table(indexes = @Index(name = "idx_users_expired_last_active", columnList = "expired, last_active_at, id"))
 @Getter
 @Data
 public class LibraryUser {
@@ -27,8 +33,36 @@ public class LibraryUser {
     @Column(columnDefinition = "boolean default true")
     private boolean enabled = true;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "role")
+    // Home branch; the catalog this user sees and borrows from
+    @Column(nullable = false, length = 32)
+    @ColumnDefault("'" + BranchContext.DEFAULT_BRANCH + "'")
+    private String branch = BranchContext.DEFAULT_BRANCH;
+
+    // Null for accounts created before the column existed
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    // Written behind by UserActivityTracker, so up to one flush interval old
+    @Column(name = "last_active_at")
+    private Instant lastActiveAt;
+
+    // Kept in step by the borrow/return statements and repaired by LoanCounterReconciler; never
+    // written from the entity, so saving a stale user cannot overwrite it
+    @Column(name = "active_loans", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private int activeLoans;
+
+    // Bumped by every write except the activity clock and loan counter, which do not affect cached principals
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // Bitmask column, see RoleMaskBackfill for rows created with the old user_roles table
+    @Convert(converter = LibraryUserRolesConverter.class)
+    @Column(name = "role_mask", nullable = false)
+    @ColumnDefault("0")
     private Set<LibraryUserRoles> roles;
 }
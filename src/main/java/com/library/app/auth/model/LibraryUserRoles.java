@@ -2,16 +2,65 @@ package com.library.app.auth.model;
 
 import com.fasterxml.jackson.annotation.JsonValue;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum LibraryUserRoles {
     ROLE_USER("ROLE_USER"),
     ROLE_ADMIN("ROLE_ADMIN");
 
+    // Appending a role is safe; reordering changes the stored masks
+    private static final LibraryUserRoles[] VALUES = values();
+
+    // Shared immutable role set per mask
+    @SuppressWarnings("unchecked")
+    private static final Set<LibraryUserRoles>[] SETS = new Set[1 << VALUES.length];
+
+    static {
+        for (int mask = 0; mask < SETS.length; mask++) {
+            EnumSet<LibraryUserRoles> roles = EnumSet.noneOf(LibraryUserRoles.class);
+            for (LibraryUserRoles role : VALUES) {
+                if ((mask & role.bit()) != 0) {
+                    roles.add(role);
+                }
+            }
+            SETS[mask] = Collections.unmodifiableSet(roles);
+        }
+    }
+
     private final String value;
 
     LibraryUserRoles(String value) {
         this.value = value;
     }
 
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static int toMask(Set<LibraryUserRoles> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (LibraryUserRoles role : roles) {
+                mask |= role.bit();
+            }
+        }
+        return mask;
+    }
+
+    public static Set<LibraryUserRoles> fromMask(int mask) {
+        if (mask < 0 || mask >= SETS.length) {
+            throw new IllegalArgumentException("Unknown role mask: " + mask);
+        }
+        return SETS[mask];
+    }
+
+    // Number of distinct role combinations, i.e. the exclusive upper bound of a mask
+    public static int combinations() {
+        return SETS.length;
+    }
+
     @JsonValue
     public String getValue() {
         return value;
@@ -0,0 +1,24 @@
+package com.library.app.auth.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Set;
+
+/**
+ * Stores a role set as a bitmask of {@link LibraryUserRoles#bit()} values in a single column.
+ * Loaded sets are shared and immutable, so roles are changed by assigning a new set.
+ */
+@Converter
+public class LibraryUserRolesConverter implements AttributeConverter<Set<LibraryUserRoles>, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<LibraryUserRoles> roles) {
+        return LibraryUserRoles.toMask(roles);
+    }
+
+    @Override
+    public Set<LibraryUserRoles> convertToEntityAttribute(Integer mask) {
+        return LibraryUserRoles.fromMask(mask != null ? mask : 0);
+    }
+}
@@ -11,4 +11,6 @@ public class RegisterRequest {
     private String username;
     private String password;
     private Set<LibraryUserRoles> roles;
+    // Home branch; the default branch when omitted
+    private String branch;
 }
@@ -0,0 +1,23 @@
+package com.library.app.auth.model;
+
+import java.time.Instant;
+
+/**
+ * Criteria of the admin user directory search and of bulk account changes. Every field is
+ * optional; {@code null} means no restriction.
+ *
+ * @param name          case-insensitive part of the username
+ * @param prefix        match {@code name} at the start of the username only instead of anywhere
+ * @param enabled       restrict to enabled or disabled accounts
+ * @param expired       restrict to expired or active accounts
+ * @param role          restrict to users holding this role
+ * @param createdBefore restrict to accounts created before this instant
+ */
+public record UserDirectoryFilter(String name, boolean prefix, Boolean enabled, Boolean expired,
+                                  LibraryUserRoles role, Instant createdBefore) {
+
+    public boolean isEmpty() {
+        return (name == null || name.isBlank()) && enabled == null && expired == null && role == null
+                && createdBefore == null;
+    }
+}
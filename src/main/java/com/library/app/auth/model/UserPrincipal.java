@@ -9,6 +9,18 @@ import java.util.List;
 
 public class UserPrincipal implements UserDetails {
 
+    // Immutable authority list per role mask, shared by all principals
+    @SuppressWarnings("unchecked")
+    private static final List<GrantedAuthority>[] AUTHORITIES = new List[LibraryUserRoles.combinations()];
+
+    static {
+        for (int mask = 0; mask < AUTHORITIES.length; mask++) {
+            AUTHORITIES[mask] = LibraryUserRoles.fromMask(mask).stream()
+                    .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.getValue()))
+                    .toList();
+        }
+    }
+
     private final LibraryUser user;
 
     public UserPrincipal(LibraryUser user) {
@@ -17,9 +29,20 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(libraryUserRoles -> new SimpleGrantedAuthority(libraryUserRoles.getValue()))
-                .toList();
+        return AUTHORITIES[LibraryUserRoles.toMask(user.getRoles())];
+    }
+
+    public Long getId() {
+        return user.getId();
+    }
+
+    // Version of the row the principal was loaded from
+    public long getVersion() {
+        return user.getVersion() == null ? 0 : user.getVersion();
+    }
+
+    public String getBranch() {
+        return user.getBranch();
     }
 
     @Override
@@ -1,18 +1,92 @@
 package com.library.app.auth.repository;
 
 import com.library.app.auth.model.LibraryUser;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNullApi;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface LibraryUserRepository extends JpaRepository<LibraryUser, Long> {
+public interface LibraryUserRepository extends JpaRepository<LibraryUser, Long>, JpaSpecificationExecutor<LibraryUser>,
+        LibraryUserRepositoryCustom {
     Optional<LibraryUser> findByUsername(String username);
     Page<LibraryUser> findAll(Pageable pageable);
-    Page<LibraryUser> findByUsernameContainingIgnoreCase(String username,Pageable pageable);
-}
\ No newline at end of file
+
+    // Served from uk_users_username_lower, see UserDirectoryIndexes
+    @Query("select count(u) > 0 from users u where lower(u.username) = lower(:username)")
+    boolean existsByUsernameIgnoreCase(@Param("username") String username);
+
+    // Bulk state changes skip rows already in the target state, so the counts are rows changed
+    @Modifying
+    @Query("update users u set u.enabled = :enabled, u.version = u.version + 1 where u.id in :ids and u.enabled <> :enabled")
+    int updateEnabled(@Param("ids") Collection<Long> ids, @Param("enabled") boolean enabled);
+
+    @Modifying
+    @Query("update users u set u.expired = true, u.version = u.version + 1 where u.id in :ids and u.expired = false")
+    int expire(@Param("ids") Collection<Long> ids);
+
+    // Rows deleted: 0 when the account did not exist or was deleted concurrently
+    @Modifying
+    @Query("delete from users u where u.id = :id")
+    int deleteAccount(@Param("id") Long id);
+
+    // Served from idx_users_expired_last_active; native to compare the raw role masks
+    @Query(value = "select id from users where expired = false and last_active_at < :cutoff " +
+            "and role_mask in (:roleMasks) order by last_active_at, id fetch first :limit rows only", nativeQuery = true)
+    List<Long> findInactiveIds(@Param("cutoff") Instant cutoff, @Param("roleMasks") Collection<Integer> roleMasks,
+                               @Param("limit") int limit);
+
+    @Query("select u.id from users u where u.lastActiveAt is null order by u.id")
+    List<Long> findIdsWithoutActivity(Limit limit);
+
+    // Starts the inactivity clock of accounts that have not been seen since tracking began
+    @Modifying
+    @Query("update users u set u.lastActiveAt = coalesce(u.createdAt, :now) where u.id in :ids and u.lastActiveAt is null")
+    int startActivityClock(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    // Counts a new loan against the user's limit; 0 rows means the limit is reached
+    @Modifying
+    @Query(value = "update users set active_loans = active_loans + 1 where id = :id and active_loans < :limit",
+            nativeQuery = true)
+    int claimLoan(@Param("id") Long id, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "update users set active_loans = active_loans - 1 where id = :id and active_loans > 0",
+            nativeQuery = true)
+    int releaseLoan(@Param("id") Long id);
+
+    // Gives back the loans of every borrower of a title that is being deleted
+    @Modifying
+    @Query(value = "update users u set active_loans = greatest(u.active_loans - " +
+            "(select count(*) from book_copies c where c.book_id = :bookId and c.borrower_id = u.id), 0) " +
+            "where u.id in (select c.borrower_id from book_copies c where c.book_id = :bookId)",
+            nativeQuery = true)
+    int releaseLoansOfBook(@Param("bookId") Long bookId);
+
+    @Query("select u.id from users u where u.id > :after order by u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    // Locks the rows so that no borrow or return of these users is in flight while they are counted
+    @Query(value = "select id from users where id in (:ids) order by id for update", nativeQuery = true)
+    List<Long> lockForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Resets counters that disagree with the loans actually recorded on copies
+    @Modifying
+    @Query(value = "update users u set active_loans = " +
+            "(select count(*) from book_copies c where c.borrower_id = u.id) " +
+            "where u.id in (:ids) and u.active_loans <> (select count(*) from book_copies c where c.borrower_id = u.id)",
+            nativeQuery = true)
+    int reconcileActiveLoans(@Param("ids") Collection<Long> ids);
+}
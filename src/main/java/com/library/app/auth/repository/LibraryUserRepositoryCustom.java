@@ -0,0 +1,12 @@
+package com.library.app.auth.repository;
+
+import com.library.app.auth.model.LibraryUser;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface LibraryUserRepositoryCustom {
+
+    // Ids of matching users above afterId in ascending order, without loading the rows
+    List<Long> findIds(Specification<LibraryUser> specification, long afterId, int limit);
+}
@@ -0,0 +1,65 @@
+package com.library.app.auth.repository;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.UserDirectoryFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Predicates of the admin user directory. Only the filters that are set end up in the query, so
+ * the planner sees a plain predicate instead of {@code (:param is null or ...)} chains.
+ */
+public final class UserDirectorySpecifications {
+
+    private UserDirectorySpecifications() {
+    }
+
+    public static Specification<LibraryUser> matching(UserDirectoryFilter filter) {
+        List<Specification<LibraryUser>> specifications = new ArrayList<>();
+        if (filter.name() != null && !filter.name().isBlank()) {
+            specifications.add(usernameLike(filter.name().trim(), filter.prefix()));
+        }
+        if (filter.enabled() != null) {
+            specifications.add((root, query, cb) -> cb.equal(root.get("enabled"), filter.enabled()));
+        }
+        if (filter.expired() != null) {
+            specifications.add((root, query, cb) -> cb.equal(root.get("expired"), filter.expired()));
+        }
+        if (filter.role() != null) {
+            specifications.add(hasRole(filter.role()));
+        }
+        if (filter.createdBefore() != null) {
+            specifications.add((root, query, cb) -> cb.lessThan(root.get("createdAt"), filter.createdBefore()));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    // Keyset continuation; usernames are unique, so they order the directory on their own
+    public static Specification<LibraryUser> after(String username) {
+        return (root, query, cb) -> cb.greaterThan(root.get("username"), username);
+    }
+
+    // lower(username) like 'q%' uses idx_users_username_prefix, '%q%' the trigram index
+    private static Specification<LibraryUser> usernameLike(String name, boolean prefix) {
+        String escaped = name.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        String pattern = prefix ? escaped + "%" : "%" + escaped + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("username")), pattern, '\\');
+    }
+
+    // Roles are a bitmask column; match the few masks that contain the role
+    private static Specification<LibraryUser> hasRole(LibraryUserRoles role) {
+        List<Set<LibraryUserRoles>> masks = new ArrayList<>();
+        for (int mask = 0; mask < LibraryUserRoles.combinations(); mask++) {
+            if ((mask & role.bit()) != 0) {
+                masks.add(LibraryUserRoles.fromMask(mask));
+            }
+        }
+        return (root, query, cb) -> root.get("roles").in(masks);
+    }
+}
@@ -4,7 +4,6 @@ import com.library.app.auth.model.LibraryUser;
 import com.library.app.auth.model.UserPrincipal;
 import com.library.app.auth.repository.LibraryUserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -17,7 +16,7 @@ public class AuthLibraryUserService implements UserDetailsService {
     private LibraryUserRepository userRepository;
 
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public UserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
         Optional<LibraryUser> user = userRepository.findByUsername(username);
 
         if (user.isEmpty()) {
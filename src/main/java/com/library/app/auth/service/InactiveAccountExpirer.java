@@ -0,0 +1,105 @@
+package com.library.app.auth.service;
+
+import com.library.app.auth.audit.AuditEventType;
+import com.library.app.auth.audit.AuditLog;
+import com.library.app.auth.audit.AuditRecord;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.repository.LibraryUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expires accounts that have not been active for {@code inactive-after}.
+ * <p>
+ * Walks the {@code (expired, last_active_at, id)} index from the oldest activity in bounded
+ * chunks, each expired with one UPDATE; expired accounts leave the scanned range, so every run
+ * starts from the front without rescanning them. Accounts with no recorded activity first get
+ * their creation time (or, for old accounts, the time of the run) so that their clock starts.
+ * Administrators are never expired, so the library cannot lock itself out.
+ */
+@Component
+public class InactiveAccountExpirer {
+
+    private static final Logger logger = LoggerFactory.getLogger(InactiveAccountExpirer.class);
+
+    // Role masks without ROLE_ADMIN
+    private static final List<Integer> EXPIRABLE_ROLE_MASKS = new ArrayList<>();
+
+    static {
+        for (int mask = 0; mask < LibraryUserRoles.combinations(); mask++) {
+            if ((mask & LibraryUserRoles.ROLE_ADMIN.bit()) == 0) {
+                EXPIRABLE_ROLE_MASKS.add(mask);
+            }
+        }
+    }
+
+    @Autowired
+    private LibraryUserRepository userRepository;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Value("${library.activity.inactive-after:P365D}")
+    private Duration inactiveAfter;
+
+    @Value("${library.activity.expiry-chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${library.activity.expiry-max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    @Scheduled(fixedDelayString = "${library.activity.expiry-interval:PT6H}",
+            initialDelayString = "${library.activity.expiry-initial-delay:PT10M}")
+    public void expireInactive() {
+        Instant now = Instant.now();
+        startActivityClocks(now);
+
+        Instant cutoff = now.minus(inactiveAfter);
+        long expired = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            List<Long> ids = userRepository.findInactiveIds(cutoff, EXPIRABLE_ROLE_MASKS, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            expired += libraryUserService.expireUsers(ids);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired {} accounts inactive since {}", expired, cutoff);
+            auditLog.record(AuditEventType.ACCOUNT_EXPIRED, AuditLog.SYSTEM, AuditRecord.NO_SUBJECT, null,
+                    "inactive since " + cutoff + " changed=" + expired);
+        }
+    }
+
+    private void startActivityClocks(Instant now) {
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            List<Long> ids = userRepository.findIdsWithoutActivity(Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> userRepository.startActivityClock(ids, now));
+            if (ids.size() < chunkSize) {
+                return;
+            }
+        }
+    }
+}
@@ -1,23 +1,40 @@
 package com.library.app.auth.service;
 
+import com.library.app.auth.audit.AuditEventType;
+import com.library.app.auth.audit.AuditLog;
+import com.library.app.auth.audit.AuditRecord;
 import com.library.app.auth.config.JwtFilter;
+import com.library.app.auth.model.BulkUserRequest;
 import com.library.app.auth.model.LibraryUser;
 import com.library.app.auth.model.LoginRequest;
 import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.model.UserDirectoryFilter;
 import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.repository.UserDirectorySpecifications;
+import com.library.app.common.invalidation.InvalidationPublisher;
+import com.library.app.library.branch.BranchContext;
 import org.apache.catalina.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.ToIntFunction;
 
 @Service
 public class LibraryUserService {
@@ -33,10 +50,22 @@ public class LibraryUserService {
     @Autowired
     private AuthenticationManager authManager;
 
+    @Autowired
+    private InvalidationPublisher invalidations;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${library.users.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
     private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
 
     public void register(RegisterRequest user) {
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
+        if (userRepository.existsByUsernameIgnoreCase(user.getUsername())) {
             throw new IllegalArgumentException("User already exists");
         }
         LibraryUser newUser = new LibraryUser();
@@ -44,41 +73,61 @@ public class LibraryUserService {
         newUser.setRoles(user.getRoles());
         newUser.setUsername(user.getUsername());
         newUser.setPassword(encoder.encode(user.getPassword()));
+        if (user.getBranch() != null) {
+            if (!BranchContext.isValidName(user.getBranch())) {
+                throw new IllegalArgumentException("Invalid branch: " + user.getBranch());
+            }
+            newUser.setBranch(user.getBranch());
+        }
 
-
-        logger.info("Registering user: {}", newUser.toString());
+        logger.info("Registering user: {}", newUser.getUsername());
 
         userRepository.save(newUser);
+        invalidations.userChanged(newUser.getId(), newUser.getVersion());
+        auditLog.record(AuditEventType.USER_REGISTERED, newUser.getId(), newUser.getUsername(),
+                "roles=" + newUser.getRoles() + " branch=" + newUser.getBranch());
     }
 
     public String verify(LoginRequest user) {
-        Authentication authentication = authManager.authenticate(new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword()));
-        if (authentication.isAuthenticated()) {
-            Optional<LibraryUser> _u =  userRepository.findByUsername(user.getUsername());
+        try {
+            Authentication authentication = authManager.authenticate(new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword()));
+            if (authentication.isAuthenticated()) {
+                Optional<LibraryUser> _u =  userRepository.findByUsername(user.getUsername());
 
-            if (_u.isEmpty()) {
-                throw new SecurityException("User not found");
-            }
+                if (_u.isEmpty()) {
+                    throw new SecurityException("User not found");
+                }
 
-            return jwtService.generateToken(user.getUsername(), _u.get().getRoles());
-        } else {
-            throw new SecurityException("Invalid login credentials");
+                String token = jwtService.generateToken(user.getUsername(), _u.get().getRoles());
+                auditLog.record(AuditEventType.LOGIN_SUCCESS, user.getUsername(), _u.get().getId(), user.getUsername(), null);
+                return token;
+            } else {
+                throw new SecurityException("Invalid login credentials");
+            }
+        } catch (AuthenticationException | SecurityException e) {
+            auditLog.record(AuditEventType.LOGIN_FAILURE, user.getUsername(), AuditRecord.NO_SUBJECT, user.getUsername(),
+                    e.getClass().getSimpleName());
+            throw e;
         }
     }
 
+    @Transactional(readOnly = true)
     public long count() {
         return  userRepository.count();
     }
 
+    @Transactional(readOnly = true)
     public Page<LibraryUser> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Optional<LibraryUser> getUserById(Long id) {
         return userRepository.findById(id);
     }
 
     // ✅ Get user by username
+    @Transactional(readOnly = true)
     public Optional<LibraryUser> getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -86,8 +135,12 @@ public class LibraryUserService {
     public Optional<LibraryUser> updateUserName(Long id, String newUserName, String currentUsername) {
         return userRepository.findById(id)
                 .map(user -> {
+                    String oldUserName = user.getUsername();
                     user.setUsername(newUserName);
-                    return userRepository.save(user);
+                    LibraryUser saved = userRepository.save(user);
+                    invalidations.userChanged(id, saved.getVersion());
+                    auditLog.record(AuditEventType.USERNAME_CHANGED, id, newUserName, "from=" + oldUserName);
+                    return saved;
                 });
     }
 
@@ -95,37 +148,126 @@ public class LibraryUserService {
     public Optional<LibraryUser> disableUser(Long id) {
         return userRepository.findById(id).map(user -> {
             user.setEnabled(false);
-            return userRepository.save(user);
+            return audited(AuditEventType.ACCOUNT_DISABLED, userRepository.save(user));
         });
     }
 
     public Optional<LibraryUser> enableUser(Long id) {
         return userRepository.findById(id).map(user -> {
             user.setEnabled(true);
-            return userRepository.save(user);
+            return audited(AuditEventType.ACCOUNT_ENABLED, userRepository.save(user));
         });
     }
 
     public Optional<LibraryUser> expireUser(Long id) {
         return userRepository.findById(id).map(user -> {
             user.setExpired(true);
-            return userRepository.save(user);
+            return audited(AuditEventType.ACCOUNT_EXPIRED, userRepository.save(user));
         });
     }
 
-    public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+    // Returns false when there was no account to delete; only actual deletes are audited
+    @Transactional
+    public boolean deleteUser(Long id) {
+        if (userRepository.deleteAccount(id) == 0) {
+            return false;
+        }
+        invalidations.userChanged(id, null);
+        auditLog.record(AuditEventType.ACCOUNT_DELETED, id, null, null);
+        return true;
     }
 
     public Optional<LibraryUser> updatePassword(Long id, String newPassword) {
         return userRepository.findById(id).map(user -> {
             user.setPassword(encoder.encode(newPassword));
-            return userRepository.save(user);
+            return audited(AuditEventType.PASSWORD_CHANGED, userRepository.save(user));
+        });
+    }
+
+    private LibraryUser audited(AuditEventType type, LibraryUser user) {
+        invalidations.userChanged(user.getId(), user.getVersion());
+        auditLog.record(type, user.getId(), user.getUsername(), null);
+        return user;
+    }
+
+    /**
+     * Enables or disables every account selected by the request, a chunk of ids per UPDATE and
+     * transaction. Returns the number of accounts whose state changed.
+     */
+    public int bulkSetEnabled(BulkUserRequest request, boolean enabled) {
+        int updated = bulkUpdate(request, ids -> userRepository.updateEnabled(ids, enabled));
+        auditBulk(enabled ? AuditEventType.ACCOUNT_ENABLED : AuditEventType.ACCOUNT_DISABLED, request, updated);
+        return updated;
+    }
+
+    public int bulkExpire(BulkUserRequest request) {
+        int updated = bulkUpdate(request, userRepository::expire);
+        auditBulk(AuditEventType.ACCOUNT_EXPIRED, request, updated);
+        return updated;
+    }
+
+    // One summary event per bulk change rather than one per account
+    private void auditBulk(AuditEventType type, BulkUserRequest request, int updated) {
+        String selection = request.getIds() != null && !request.getIds().isEmpty()
+                ? "ids=" + request.getIds().size() : "filter=" + request.toFilter();
+        auditLog.record(type, AuditRecord.NO_SUBJECT, null, "bulk " + selection + " changed=" + updated);
+    }
+
+    // Expires one chunk of accounts in a single UPDATE
+    public int expireUsers(List<Long> ids) {
+        return updateChunk(ids, userRepository::expire);
+    }
+
+    private int bulkUpdate(BulkUserRequest request, ToIntFunction<List<Long>> update) {
+        UserDirectoryFilter filter = request.toFilter();
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (hasIds == !filter.isEmpty()) {
+            throw new IllegalArgumentException("Select users either by ids or by a filter.");
+        }
+
+        int updated = 0;
+        if (hasIds) {
+            List<Long> ids = request.getIds().stream().filter(Objects::nonNull).distinct().toList();
+            for (int from = 0; from < ids.size(); from += bulkChunkSize) {
+                updated += updateChunk(ids.subList(from, Math.min(ids.size(), from + bulkChunkSize)), update);
+            }
+            return updated;
+        }
+
+        // Walks the matching ids in primary key order; each chunk is updated by id
+        Specification<LibraryUser> specification = UserDirectorySpecifications.matching(filter);
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = userRepository.findIds(specification, lastId, bulkChunkSize);
+            if (ids.isEmpty()) {
+                return updated;
+            }
+            updated += updateChunk(ids, update);
+            lastId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private int updateChunk(List<Long> ids, ToIntFunction<List<Long>> update) {
+        Integer updated = transactionTemplate.execute(status -> {
+            invalidations.usersChanged(ids);
+            return update.applyAsInt(ids);
         });
+        return updated == null ? 0 : updated;
+    }
+
+    // Up to limit users matching the filter, in username order, after the given username
+    @Transactional(readOnly = true)
+    public List<LibraryUser> searchDirectory(UserDirectoryFilter filter, String after, int limit) {
+        Specification<LibraryUser> specification = UserDirectorySpecifications.matching(filter);
+        if (after != null) {
+            specification = specification.and(UserDirectorySpecifications.after(after));
+        }
+        return userRepository.findBy(specification, query -> query.sortBy(Sort.by("username")).limit(limit).all());
     }
 
-    public Page<LibraryUser> findByUsername(String name,Pageable pageable) {
-        return userRepository.findByUsernameContainingIgnoreCase(name, pageable);
+    @Transactional(readOnly = true)
+    public long countDirectory(UserDirectoryFilter filter) {
+        return userRepository.count(UserDirectorySpecifications.matching(filter));
     }
 
 
@@ -0,0 +1,93 @@
+package com.library.app.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind tracking of {@code users.last_active_at}.
+ * <p>
+ * Authenticated requests only record the time in memory, coalesced to one pending timestamp per
+ * user; a scheduled flush writes them in JDBC batches, so a user making hundreds of requests
+ * between flushes costs one UPDATE. The column never moves backwards, so flushes from several
+ * nodes can interleave. Timestamps still pending when a node dies are lost, which at worst makes
+ * a user look one flush interval less active.
+ */
+@Component
+public class UserActivityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserActivityTracker.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${library.activity.flush-batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    public void record(Long userId) {
+        if (userId != null) {
+            pending.merge(userId, System.currentTimeMillis(), Math::max);
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${library.activity.flush-interval:PT1M}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        int flushed = 0;
+        for (Long userId : pending.keySet()) {
+            Long lastActive = pending.remove(userId);
+            if (lastActive == null) {
+                continue;
+            }
+            Timestamp timestamp = new Timestamp(lastActive);
+            batch.add(new Object[]{timestamp, userId, timestamp});
+            if (batch.size() == batchSize) {
+                flushed += write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushed += write(batch);
+        }
+        if (flushed > 0) {
+            logger.debug("Flushed last activity of {} users", flushed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private int write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate("update users set last_active_at = ? " +
+                    "where id = ? and (last_active_at is null or last_active_at < ?)", batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            // Put the timestamps back for the next flush unless newer ones arrived meanwhile
+            for (Object[] row : batch) {
+                pending.merge((Long) row[1], ((Timestamp) row[0]).getTime(), Math::max);
+            }
+            logger.warn("Failed to flush last activity of {} users: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.library.app.auth.service;
+
+import com.library.app.auth.model.UserPrincipal;
+import com.library.app.common.invalidation.CachedEntity;
+import com.library.app.common.invalidation.Invalidation;
+import com.library.app.common.invalidation.InvalidationListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Node-local cache of the principals that authenticate bearer tokens, so a request does not
+ * load its user row again. Entries live for at most the TTL and the least recently used ones
+ * are evicted beyond {@code max-entries}. Changes to an account committed on any node evict it
+ * through the {@link com.library.app.common.invalidation.InvalidationBus}. The last invalidation
+ * of each user is remembered, so a load that read the row before an invalidation and finishes
+ * after it does not put the stale principal back.
+ * <p>
+ * Guarded by a {@link ReentrantLock} rather than {@code synchronized} so that contended callers
+ * park without pinning their carrier thread when running on virtual threads.
+ */
+@Component
+public class UserPrincipalCache implements InvalidationListener {
+
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private final Map<Long, Invalidated> invalidated;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Number of invalidation batches received; tells which invalidations arrived during a load
+    private long generation;
+    private long lastReset;
+
+    public UserPrincipalCache(@Value("${library.auth.principal-cache-ttl:PT30S}") Duration ttl,
+                              @Value("${library.auth.principal-cache-max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.invalidated = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Invalidated> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // Loads outside the lock; concurrent misses for one user may both load, the last one wins
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry entry = entries.get(username);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt <= ttlMillis) {
+                return entry.principal;
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        UserPrincipal principal = loader.apply(username);
+        lock.lock();
+        try {
+            if (!isStale(principal, loadGeneration)) {
+                entries.put(username, new Entry(principal, System.currentTimeMillis()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return principal;
+    }
+
+    // An unknown version only condemns loads that were running when the invalidation arrived
+    private boolean isStale(UserPrincipal principal, long loadGeneration) {
+        if (lastReset > loadGeneration) {
+            return true;
+        }
+        Invalidated last = invalidated.get(principal.getId());
+        return last != null && last.invalidation.isStale(principal.getVersion())
+                && (last.invalidation.version() != Invalidation.UNKNOWN_VERSION || last.generation > loadGeneration);
+    }
+
+    // Drops principals loaded from a row version older than the committed change
+    @Override
+    public void onInvalidation(List<Invalidation> invalidations) {
+        Map<Long, Invalidation> changed = new HashMap<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.entity() == CachedEntity.USER) {
+                changed.put(invalidation.id(), invalidation);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            generation++;
+            changed.values().forEach(invalidation ->
+                    invalidated.merge(invalidation.id(), new Invalidated(invalidation, generation), Invalidated::newest));
+            entries.values().removeIf(entry -> {
+                Invalidation invalidation = changed.get(entry.principal.getId());
+                return invalidation != null && invalidation.isStale(entry.principal.getVersion());
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onReset() {
+        evictAll();
+    }
+
+    public void evictAll() {
+        lock.lock();
+        try {
+            // Also keeps loads running now out of the cache; nothing is known about what changed
+            lastReset = ++generation;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry(UserPrincipal principal, long loadedAt) {
+    }
+
+    private record Invalidated(Invalidation invalidation, long generation) {
+
+        // Keeps the higher version, or the unknown one, with the latest generation
+        private static Invalidated newest(Invalidated previous, Invalidated next) {
+            long version = previous.invalidation.version() == Invalidation.UNKNOWN_VERSION
+                    || next.invalidation.version() == Invalidation.UNKNOWN_VERSION
+                    ? Invalidation.UNKNOWN_VERSION
+                    : Math.max(previous.invalidation.version(), next.invalidation.version());
+            return new Invalidated(new Invalidation(next.invalidation.entity(), next.invalidation.id(), version),
+                    next.generation);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.app.common.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Delivery to the local listeners, shared by the bus implementations.
+ */
+public abstract class AbstractInvalidationBus implements InvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractInvalidationBus.class);
+
+    private final List<InvalidationListener> listeners;
+
+    protected AbstractInvalidationBus(List<InvalidationListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public void afterCommit(List<Invalidation> invalidations) {
+        deliver(invalidations);
+    }
+
+    // A failing listener must not keep the others from evicting
+    protected void deliver(List<Invalidation> invalidations) {
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidation(invalidations);
+            } catch (RuntimeException e) {
+                logger.warn("Invalidation listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    protected void reset() {
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onReset();
+            } catch (RuntimeException e) {
+                logger.warn("Invalidation listener {} failed to reset: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.app.common.invalidation;
+
+/**
+ * Entities that nodes cache locally, with the one-letter code used on the wire.
+ */
+public enum CachedEntity {
+    BOOK('b'),
+    USER('u');
+
+    private final char code;
+
+    CachedEntity(char code) {
+        this.code = code;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    public static CachedEntity fromCode(char code) {
+        for (CachedEntity entity : values()) {
+            if (entity.code == code) {
+                return entity;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cached entity code: " + code);
+    }
+}
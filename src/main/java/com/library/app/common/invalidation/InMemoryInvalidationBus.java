@@ -0,0 +1,18 @@
+package com.library.app.common.invalidation;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-node bus: committed changes only reach the listeners of this node. Used by tests and
+ * single-instance deployments.
+ */
+@Component
+@ConditionalOnProperty(name = "library.invalidation.bus", havingValue = "memory", matchIfMissing = true)
+public class InMemoryInvalidationBus extends AbstractInvalidationBus {
+
+    public InMemoryInvalidationBus(ObjectProvider<InvalidationListener> listeners) {
+        super(listeners.orderedStream().toList());
+    }
+}
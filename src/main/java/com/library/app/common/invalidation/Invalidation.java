@@ -0,0 +1,30 @@
+package com.library.app.common.invalidation;
+
+/**
+ * A committed change to one cached row. Copies of the row with a version lower than
+ * {@code version} are stale; {@link #UNKNOWN_VERSION} (bulk updates, deletes) makes every copy
+ * stale.
+ */
+public record Invalidation(CachedEntity entity, long id, long version) {
+
+    public static final long UNKNOWN_VERSION = -1;
+
+    public boolean isStale(long cachedVersion) {
+        return version == UNKNOWN_VERSION || cachedVersion < version;
+    }
+
+    // Compact wire form, e.g. "u:42:3"
+    public String encode() {
+        return entity.getCode() + ":" + id + ":" + version;
+    }
+
+    public static Invalidation decode(String encoded) {
+        int second = encoded.indexOf(':', 2);
+        if (encoded.length() < 5 || encoded.charAt(1) != ':' || second < 0) {
+            throw new IllegalArgumentException("Malformed invalidation: " + encoded);
+        }
+        return new Invalidation(CachedEntity.fromCode(encoded.charAt(0)),
+                Long.parseLong(encoded, 2, second, 10),
+                Long.parseLong(encoded, second + 1, encoded.length(), 10));
+    }
+}
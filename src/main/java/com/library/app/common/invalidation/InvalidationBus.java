@@ -0,0 +1,22 @@
+package com.library.app.common.invalidation;
+
+import java.util.List;
+
+/**
+ * Carries invalidations of cached rows to the {@link InvalidationListener}s of every node.
+ * Callers go through {@link InvalidationPublisher}, which hands over the changes of a
+ * transaction once it is about to commit and once it has committed.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Called inside the writing transaction right before it commits. Buses that ride on the
+     * transaction, such as PostgreSQL NOTIFY, send to other nodes from here so that the
+     * messages are delivered exactly when the change becomes visible.
+     */
+    default void beforeCommit(List<Invalidation> invalidations) {
+    }
+
+    // Called once the transaction has committed; delivers to the listeners of this node
+    void afterCommit(List<Invalidation> invalidations);
+}
@@ -0,0 +1,17 @@
+package com.library.app.common.invalidation;
+
+import java.util.List;
+
+/**
+ * A node-local cache that drops entries when they change on any node. Every listener bean is
+ * registered with the {@link InvalidationBus}.
+ */
+public interface InvalidationListener {
+
+    // Changes committed by one transaction, here or on another node
+    void onInvalidation(List<Invalidation> invalidations);
+
+    // Invalidations may have been missed, e.g. while the bus was reconnecting; drop everything
+    default void onReset() {
+    }
+}
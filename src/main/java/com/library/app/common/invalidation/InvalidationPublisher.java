@@ -0,0 +1,101 @@
+package com.library.app.common.invalidation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes invalidations of changed rows with the transaction that changed them. Changes are
+ * staged per thread, one per row with the highest version seen, and handed to the
+ * {@link InvalidationBus} before and after commit, or dropped on rollback. Outside a
+ * transaction they are published right away.
+ */
+@Component
+public class InvalidationPublisher implements TransactionSynchronization {
+
+    @Autowired
+    private InvalidationBus bus;
+
+    private final ThreadLocal<PendingInvalidations> pending = ThreadLocal.withInitial(PendingInvalidations::new);
+
+    public void bookChanged(long id, Long version) {
+        publish(CachedEntity.BOOK, id, version);
+    }
+
+    public void userChanged(long id, Long version) {
+        publish(CachedEntity.USER, id, version);
+    }
+
+    // Rows changed by a bulk statement, whose new versions are not known here
+    public void usersChanged(Collection<Long> ids) {
+        for (Long id : ids) {
+            publish(CachedEntity.USER, id, null);
+        }
+    }
+
+    public void publish(CachedEntity entity, long id, Long version) {
+        Invalidation invalidation = new Invalidation(entity, id, version == null ? Invalidation.UNKNOWN_VERSION : version);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Invalidation> invalidations = List.of(invalidation);
+            bus.beforeCommit(invalidations);
+            bus.afterCommit(invalidations);
+            return;
+        }
+        PendingInvalidations invalidations = pending.get();
+        if (!invalidations.registered) {
+            TransactionSynchronizationManager.registerSynchronization(this);
+            invalidations.registered = true;
+        }
+        invalidations.add(invalidation);
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        PendingInvalidations invalidations = pending.get();
+        if (!invalidations.byRow.isEmpty()) {
+            bus.beforeCommit(invalidations.snapshot());
+        }
+    }
+
+    @Override
+    public void afterCommit() {
+        PendingInvalidations invalidations = pending.get();
+        if (!invalidations.byRow.isEmpty()) {
+            bus.afterCommit(invalidations.snapshot());
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        pending.get().clear();
+    }
+
+    private static final class PendingInvalidations {
+        private final Map<String, Invalidation> byRow = new LinkedHashMap<>();
+        private boolean registered;
+
+        // Keeps one invalidation per row; an unknown version wins, as it invalidates every copy
+        private void add(Invalidation invalidation) {
+            byRow.merge(invalidation.entity().getCode() + ":" + invalidation.id(), invalidation, (staged, added) ->
+                    staged.version() == Invalidation.UNKNOWN_VERSION || added.version() == Invalidation.UNKNOWN_VERSION
+                            ? new Invalidation(added.entity(), added.id(), Invalidation.UNKNOWN_VERSION)
+                            : staged.version() >= added.version() ? staged : added);
+        }
+
+        private List<Invalidation> snapshot() {
+            return new ArrayList<>(byRow.values());
+        }
+
+        private void clear() {
+            byRow.clear();
+            registered = false;
+        }
+    }
+}
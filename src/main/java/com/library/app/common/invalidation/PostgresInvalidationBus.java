@@ -0,0 +1,188 @@
+package com.library.app.common.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Multi-node bus over PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * The invalidations of a transaction are sent with {@code pg_notify} on the transaction's own
+ * connection just before it commits, so PostgreSQL delivers them to the other nodes on commit
+ * and drops them on rollback. Each node listens on a dedicated connection outside the pool.
+ * Payloads carry the sending node's id, so a node skips its own messages and delivers its own
+ * changes locally after commit instead.
+ * <p>
+ * NOTIFY is not durable: while the listening connection is down messages are lost, so after
+ * reconnecting the listeners are reset.
+ */
+@Component
+@ConditionalOnProperty(name = "library.invalidation.bus", havingValue = "postgres")
+public class PostgresInvalidationBus extends AbstractInvalidationBus implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+
+    // NOTIFY payloads must stay below 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final int pollTimeoutMillis;
+    private final long reconnectDelayMillis;
+    private final String nodeId = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16);
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresInvalidationBus(ObjectProvider<InvalidationListener> listeners,
+                                   JdbcTemplate jdbcTemplate,
+                                   DataSourceProperties dataSourceProperties,
+                                   @Value("${library.invalidation.channel:library_invalidation}") String channel,
+                                   @Value("${library.invalidation.poll-timeout:PT1S}") Duration pollTimeout,
+                                   @Value("${library.invalidation.reconnect-delay:PT5S}") Duration reconnectDelay) {
+        super(listeners.orderedStream().toList());
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation channel: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.pollTimeoutMillis = (int) pollTimeout.toMillis();
+        this.reconnectDelayMillis = reconnectDelay.toMillis();
+    }
+
+    @Override
+    public void beforeCommit(List<Invalidation> invalidations) {
+        for (String payload : payloads(invalidations)) {
+            jdbcTemplate.queryForList("select pg_notify(?, ?)", channel, payload);
+        }
+    }
+
+    // "<node>|b:1:4;u:7:-1", split so that no payload exceeds the NOTIFY limit
+    private List<String> payloads(List<Invalidation> invalidations) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        int empty = payload.length();
+        for (Invalidation invalidation : invalidations) {
+            String encoded = invalidation.encode();
+            if (payload.length() + encoded.length() + 1 > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.toString());
+                payload.setLength(empty);
+            }
+            if (payload.length() > empty) {
+                payload.append(';');
+            }
+            payload.append(encoded);
+        }
+        if (payload.length() > empty) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private void onNotification(String payload) {
+        int separator = payload.indexOf('|');
+        // Changes of this node were already delivered locally after commit
+        if (separator < 0 || separator == nodeId.length() && payload.startsWith(nodeId)) {
+            return;
+        }
+        List<Invalidation> invalidations = new ArrayList<>();
+        for (String encoded : payload.substring(separator + 1).split(";")) {
+            try {
+                invalidations.add(Invalidation.decode(encoded));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring malformed invalidation '{}'", encoded);
+            }
+        }
+        if (!invalidations.isEmpty()) {
+            deliver(invalidations);
+        }
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("listen " + channel);
+                }
+                // Anything sent while we were not listening is lost
+                if (connectedBefore) {
+                    reset();
+                }
+                connectedBefore = true;
+                logger.info("Listening for invalidations on channel {} as node {}", channel, nodeId);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Invalidation listener connection failed, reconnecting in {} ms: {}",
+                        reconnectDelayMillis, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            try {
+                listenerThread.join(pollTimeoutMillis + 1_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.app.common.ring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Consumes a {@link RingBuffer} on its own thread, handing every published entry to an
+ * {@link EventHandler} in batches of up to {@code maxBatchSize}.
+ */
+public class BatchEventProcessor<E> implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchEventProcessor.class);
+
+    private final String name;
+    private final RingBuffer<E> ringBuffer;
+    private final EventHandler<? super E> handler;
+    private final int maxBatchSize;
+    private final Sequence sequence = new Sequence(-1);
+    private volatile boolean running = true;
+    private final BooleanSupplier halted = () -> !running;
+
+    public BatchEventProcessor(String name, RingBuffer<E> ringBuffer, EventHandler<? super E> handler, int maxBatchSize) {
+        this.name = name;
+        this.ringBuffer = ringBuffer;
+        this.handler = handler;
+        this.maxBatchSize = maxBatchSize;
+        ringBuffer.addGatingSequence(sequence);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    // Published entries this consumer has not processed yet
+    public long lag() {
+        return ringBuffer.getCursor() - sequence.get();
+    }
+
+    public void halt() {
+        running = false;
+        ringBuffer.getWaitStrategy().signalAllWhenBlocking();
+    }
+
+    @Override
+    public void run() {
+        long nextSequence = sequence.get() + 1;
+        while (true) {
+            try {
+                long available = ringBuffer.getWaitStrategy().waitFor(nextSequence, ringBuffer, halted);
+                if (available < nextSequence) {
+                    // Halted while idle; everything published so far has been handled
+                    break;
+                }
+                long last = ringBuffer.getHighestPublishedSequence(nextSequence,
+                        Math.min(available, nextSequence + maxBatchSize - 1));
+                for (long current = nextSequence; current <= last; current++) {
+                    handle(current, current == last);
+                }
+                if (last >= nextSequence) {
+                    sequence.set(last);
+                    nextSequence = last + 1;
+                } else {
+                    Thread.onSpinWait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        ringBuffer.removeGatingSequence(sequence);
+        logger.info("Event processor '{}' stopped at sequence {}", name, sequence.get());
+    }
+
+    private void handle(long current, boolean endOfBatch) {
+        try {
+            handler.onEvent(ringBuffer.get(current), current, endOfBatch);
+        } catch (Exception e) {
+            // A failing subscriber must not stall the ring for everybody else
+            logger.error("Event processor '{}' failed on sequence {}: {}", name, current, e.getMessage(), e);
+        }
+    }
+}
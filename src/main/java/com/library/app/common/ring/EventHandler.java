@@ -0,0 +1,14 @@
+package com.library.app.common.ring;
+
+/**
+ * Callback for entries consumed from a {@link RingBuffer}.
+ */
+@FunctionalInterface
+public interface EventHandler<E> {
+
+    /**
+     * @param endOfBatch true for the last entry of the batch currently available, a good point
+     *                   to flush buffered work
+     */
+    void onEvent(E event, long sequence, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,126 @@
+package com.library.app.common.ring;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Pre-allocated, lock-free multi-producer ring buffer.
+ * <p>
+ * Producers claim a slot with {@link #next()}, mutate the entry returned by {@link #get(long)}
+ * and hand it over with {@link #publish(long)}. Entries are created once up front and reused,
+ * so publishing does not allocate. Consumers track their progress in a {@link Sequence} that
+ * gates producers from overwriting entries that have not been processed yet.
+ */
+public final class RingBuffer<E> {
+
+    private final Object[] entries;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong cachedGatingSequence = new AtomicLong(-1);
+    private final CopyOnWriteArrayList<Sequence> gatingSequences = new CopyOnWriteArrayList<>();
+    private final WaitStrategy waitStrategy;
+
+    public RingBuffer(int bufferSize, Supplier<E> factory, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Buffer size must be a power of 2: " + bufferSize);
+        }
+        this.entries = new Object[bufferSize];
+        this.mask = bufferSize - 1;
+        this.published = new AtomicLongArray(bufferSize);
+        this.waitStrategy = waitStrategy;
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = factory.get();
+            published.set(i, -1);
+        }
+    }
+
+    public int getBufferSize() {
+        return entries.length;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    // Highest sequence claimed by a producer
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    public void addGatingSequence(Sequence sequence) {
+        sequence.set(cursor.get());
+        gatingSequences.add(sequence);
+    }
+
+    public void removeGatingSequence(Sequence sequence) {
+        gatingSequences.remove(sequence);
+    }
+
+    /**
+     * Claims the next slot, parking briefly while the buffer is full.
+     */
+    public long next() {
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - entries.length;
+            long cachedGating = cachedGatingSequence.get();
+
+            if (wrapPoint > cachedGating || cachedGating > current) {
+                long gating = minimumGatingSequence(current);
+                if (wrapPoint > gating) {
+                    LockSupport.parkNanos(1);
+                    continue;
+                }
+                cachedGatingSequence.set(gating);
+            } else if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    public void publish(long sequence) {
+        published.set((int) sequence & mask, sequence);
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    public boolean isAvailable(long sequence) {
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    /**
+     * Returns the highest contiguously published sequence in {@code [lowerBound, availableSequence]},
+     * or {@code lowerBound - 1} when {@code lowerBound} itself is not published yet.
+     */
+    public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    // Number of claimed entries that the slowest consumer has not processed yet
+    public long depth() {
+        long current = cursor.get();
+        return current - minimumGatingSequence(current);
+    }
+
+    private long minimumGatingSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (Sequence sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+}
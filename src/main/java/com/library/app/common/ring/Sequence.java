@@ -0,0 +1,23 @@
+package com.library.app.common.ring;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress marker of a ring buffer consumer: the highest sequence it has fully processed.
+ */
+public class Sequence {
+
+    private final AtomicLong value;
+
+    public Sequence(long initialValue) {
+        this.value = new AtomicLong(initialValue);
+    }
+
+    public long get() {
+        return value.get();
+    }
+
+    public void set(long newValue) {
+        value.lazySet(newValue);
+    }
+}
@@ -0,0 +1,138 @@
+package com.library.app.common.ring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * How a consumer waits for the producers to publish a sequence. Trades consumer latency against
+ * CPU burned while idle.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until {@code sequence} has been published or {@code halted} turns true.
+     *
+     * @return the highest sequence published so far, which may be lower than {@code sequence}
+     * when the wait was interrupted by {@code halted}
+     */
+    long waitFor(long sequence, RingBuffer<?> ringBuffer, BooleanSupplier halted) throws InterruptedException;
+
+    // Wakes consumers parked in waitFor; a no-op for strategies that never block
+    default void signalAllWhenBlocking() {
+    }
+
+    static WaitStrategy forName(String name) {
+        return switch (name.trim().toLowerCase()) {
+            case "blocking" -> new Blocking();
+            case "sleeping" -> new Sleeping();
+            case "yielding" -> new Yielding();
+            case "busy-spin" -> new BusySpin();
+            default -> throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        };
+    }
+
+    /**
+     * Parks on a lock/condition pair. Lowest CPU usage, highest wake-up latency.
+     */
+    final class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+        private final AtomicBoolean signalNeeded = new AtomicBoolean(false);
+
+        @Override
+        public long waitFor(long sequence, RingBuffer<?> ringBuffer, BooleanSupplier halted) throws InterruptedException {
+            if (ringBuffer.getCursor() < sequence) {
+                lock.lock();
+                try {
+                    while (true) {
+                        // Raise the flag before re-checking so a concurrent publish cannot be missed
+                        signalNeeded.set(true);
+                        if (ringBuffer.getCursor() >= sequence || halted.getAsBoolean()) {
+                            break;
+                        }
+                        published.await(10, TimeUnit.MILLISECONDS);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return ringBuffer.getCursor();
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            if (signalNeeded.getAndSet(false)) {
+                lock.lock();
+                try {
+                    published.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Spins, then yields, then parks for a short while.
+     */
+    final class Sleeping implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+        private static final int YIELD_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, RingBuffer<?> ringBuffer, BooleanSupplier halted) {
+            int counter = SPIN_TRIES + YIELD_TRIES;
+            long available;
+            while ((available = ringBuffer.getCursor()) < sequence && !halted.getAsBoolean()) {
+                if (counter > YIELD_TRIES) {
+                    counter--;
+                } else if (counter > 0) {
+                    counter--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+            return available;
+        }
+    }
+
+    /**
+     * Spins briefly, then yields the CPU between checks.
+     */
+    final class Yielding implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, RingBuffer<?> ringBuffer, BooleanSupplier halted) {
+            int counter = SPIN_TRIES;
+            long available;
+            while ((available = ringBuffer.getCursor()) < sequence && !halted.getAsBoolean()) {
+                if (counter > 0) {
+                    counter--;
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+    }
+
+    /**
+     * Spins on the cursor. Lowest latency; dedicates a core per consumer.
+     */
+    final class BusySpin implements WaitStrategy {
+        @Override
+        public long waitFor(long sequence, RingBuffer<?> ringBuffer, BooleanSupplier halted) {
+            long available;
+            while ((available = ringBuffer.getCursor()) < sequence && !halted.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+    }
+}
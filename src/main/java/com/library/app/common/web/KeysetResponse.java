@@ -0,0 +1,19 @@
+package com.library.app.common.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Response body for keyset-paginated lists. Clients pass {@code next} back as {@code after} to
+ * get the following slice; it is {@code null} on the last one. The total is only counted when
+ * asked for, since counting reads every matching row.
+ *
+ * @param content       the items of this slice
+ * @param size          requested slice size
+ * @param next          cursor of the following slice, or {@code null}
+ * @param totalElements number of matching items, when requested
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record KeysetResponse<T>(List<T> content, int size, String next, Long totalElements) {
+}
@@ -0,0 +1,24 @@
+package com.library.app.common.web;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Response body for paginated lists. Replaces serializing {@link Page} directly, whose JSON
+ * repeats the pageable and sort state on every response and changes between Spring Data
+ * versions.
+ *
+ * @param content       the items of this page
+ * @param page          zero-based page number
+ * @param size          requested page size
+ * @param totalElements number of items across all pages
+ * @param totalPages    number of pages
+ */
+public record PageResponse<T>(List<T> content, int page, int size, long totalElements, int totalPages) {
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+}
@@ -0,0 +1,26 @@
+package com.library.app.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics below the controllers. Most meters come from Spring Boot once the properties in
+ * {@code application.properties} are set:
+ * <ul>
+ *     <li>{@code spring.data.repository.invocations}: one timer per repository method</li>
+ *     <li>{@code hikaricp.connections.*}: pool usage and connection acquire (wait) time</li>
+ *     <li>{@code hibernate.*}: entity loads, flushes and query executions from Hibernate statistics</li>
+ *     <li>{@code http.server.requests}: per-endpoint latency with SLO buckets</li>
+ * </ul>
+ * This class adds statements per request ({@link QueryMetricsFilter}).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountingStatementInspector());
+    }
+}
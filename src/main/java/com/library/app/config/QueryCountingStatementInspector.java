@@ -0,0 +1,39 @@
+package com.library.app.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while counting is active.
+ * Only Hibernate statements are seen; JdbcTemplate calls are not counted.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<Counter> COUNTER = ThreadLocal.withInitial(Counter::new);
+
+    @Override
+    public String inspect(String sql) {
+        Counter counter = COUNTER.get();
+        if (counter.active) {
+            counter.statements++;
+        }
+        return sql;
+    }
+
+    public static void start() {
+        Counter counter = COUNTER.get();
+        counter.active = true;
+        counter.statements = 0;
+    }
+
+    // Stops counting and returns the number of statements since start()
+    public static int stop() {
+        Counter counter = COUNTER.get();
+        counter.active = false;
+        return counter.statements;
+    }
+
+    private static final class Counter {
+        private boolean active;
+        private int statements;
+    }
+}
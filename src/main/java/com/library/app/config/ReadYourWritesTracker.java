@@ -0,0 +1,48 @@
+package com.library.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers users who just wrote, so that their next reads go to the primary instead of a replica
+ * that may not have caught up with their own borrow or return yet.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<String, Long> recentWriters = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(@Value("${library.datasource.read-your-writes-window:PT5S}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String username) {
+        long now = System.nanoTime();
+        recentWriters.put(username, now + windowNanos);
+        if (recentWriters.size() > PURGE_THRESHOLD) {
+            recentWriters.values().removeIf(until -> until - now < 0);
+        }
+    }
+
+    public boolean isWithinWindow(String username) {
+        if (username == null) {
+            return false;
+        }
+        Long until = recentWriters.get(username);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    // Whether the authenticated user of the current request must read from the primary
+    public boolean currentUserRequiresPrimary() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && isWithinWindow(authentication.getName());
+    }
+}
@@ -0,0 +1,29 @@
+package com.library.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas used for {@code @Transactional(readOnly = true)} work, e.g.
+ * {@code library.datasource.replicas[0].url=jdbc:postgresql://replica-1:5432/library}.
+ */
+@Data
+@ConfigurationProperties("library.datasource")
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Duration replicaConnectionTimeout = Duration.ofSeconds(2);
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
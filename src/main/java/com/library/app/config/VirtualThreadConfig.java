@@ -0,0 +1,61 @@
+package com.library.app.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Connection permit gate for the {@code virtual-threads} profile (see
+ * {@code application-virtual-threads.properties}). The gate sits in front of the application
+ * DataSource and defaults to the Hikari pool size, which becomes the real concurrency limit once
+ * requests run on virtual threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.datasource.permits.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public static BeanPostProcessor dataSourcePermitGate(Environment environment) {
+        int permits = environment.getProperty("library.datasource.permits.max", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        Duration timeout = environment.getProperty("library.datasource.permits.acquire-timeout", Duration.class,
+                Duration.ofSeconds(5));
+        if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                && !JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "requests stay on platform threads", JavaVersion.getJavaVersion());
+        }
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof PermitGatedDataSource)) {
+                    logger.info("Gating DataSource '{}' with {} permits, acquire timeout {}", beanName, permits, timeout);
+                    return new PermitGatedDataSource(dataSource, permits, timeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourcePermitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof PermitGatedDataSource gate) {
+                gate.bindTo(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,302 @@
+package com.library.app.datagen;
+
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.library.service.LoanCounterReconciler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Fills the database with a production-sized synthetic dataset when the {@code datagen} profile
+ * is active (see {@code application-datagen.properties}), then exits:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.profiles=datagen \
+ *     -Dspring-boot.run.arguments="--library.datagen.books=2000000 --library.datagen.users=300000"
+ * </pre>
+ * Title words, authors and borrowers follow Zipf distributions. Rows are written in parallel
+ * JDBC batches, each chunk in its own transaction. Every chunk draws from its own generator
+ * seeded from {@code seed} and the chunk number, so the same seed yields the same rows no matter
+ * how the chunks are scheduled. Generated users are named {@code reader<n>}.
+ */
+@Component
+@Profile("datagen")
+@EnableConfigurationProperties(DatasetGeneratorProperties.class)
+public class DatasetGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    static final String USERNAME_PREFIX = "reader";
+
+    private static final String[] SYLLABLES = {
+            "al", "an", "ar", "be", "bo", "ca", "da", "del", "en", "er", "fa", "gor", "ha", "in", "is", "ka",
+            "la", "li", "lo", "ma", "mi", "na", "nor", "o", "pa", "ra", "ri", "ro", "sa", "sel", "ta", "tor",
+            "u", "va", "ven", "wi", "xa", "yo", "za", "zen"};
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Bruno", "Clara", "David", "Elena", "Felix", "Grace", "Hugo", "Ines", "Jonas", "Karin", "Leo",
+            "Maya", "Nils", "Olga", "Pavel", "Quinn", "Rosa", "Sami", "Tara", "Umar", "Vera", "Walt", "Yara"};
+    private static final String[] LAST_NAMES = {
+            "Adams", "Berg", "Costa", "Dahl", "Evans", "Fischer", "Garcia", "Hansen", "Ito", "Jensen", "Kowal",
+            "Lind", "Moreau", "Novak", "Okafor", "Petrov", "Quist", "Rossi", "Silva", "Tanaka", "Ueda", "Varga",
+            "Weber", "Young", "Zhou", "Abbott", "Brandt", "Chen", "Dubois", "Ekström"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DatasetGeneratorProperties properties;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private LoanCounterReconciler loanCounters;
+
+    @Override
+    public void run(String... args) {
+        generate();
+        if (properties.isExit()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    public void generate() {
+        long started = System.nanoTime();
+        if (properties.isTruncate()) {
+            truncate();
+        } else if (count("books") > 0) {
+            throw new IllegalStateException(
+                    "The catalog is not empty; set library.datagen.truncate=true to replace generated data");
+        }
+
+        long userBase = maxId("users");
+        Instant now = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        String passwordHash = new BCryptPasswordEncoder(12).encode(properties.getPassword());
+
+        Random shared = new Random(properties.getSeed());
+        String[] words = vocabulary(shared, properties.getVocabulary());
+        String[] authors = authors(properties.getAuthors());
+        ZipfDistribution wordRanks = new ZipfDistribution(words.length, properties.getZipfExponent());
+        ZipfDistribution authorRanks = new ZipfDistribution(authors.length, properties.getZipfExponent());
+        ZipfDistribution borrowerRanks = new ZipfDistribution(Math.max(1, properties.getUsers()), properties.getZipfExponent());
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getThreads());
+        try {
+            inChunks(executor, "users", properties.getUsers(), chunk ->
+                    insertUsers(chunk, userBase, passwordHash));
+            AtomicLong loans = new AtomicLong();
+            inChunks(executor, "books", properties.getBooks(), chunk ->
+                    loans.addAndGet(insertBooks(chunk, userBase, now, words, authors, wordRanks, authorRanks, borrowerRanks)));
+
+            // Loans were written straight into book_copies; count them onto the patrons' active_loans
+            loanCounters.reconcile();
+            // The overdue sweeper's watermark refers to loans that no longer exist
+            jdbcTemplate.update("delete from sweeper_watermarks where name = 'overdue-loans'");
+            restartSequence("users_seq", maxId("users"));
+            restartSequence("books_seq", maxId("books"));
+            restartSequence("book_copies_seq", maxId("book_copies"));
+
+            double seconds = (System.nanoTime() - started) / 1e9;
+            logger.info("Generated {} users, {} books, {} copies ({} on loan) in {}s", properties.getUsers(),
+                    properties.getBooks(), count("book_copies"), loans.get(), String.format("%.1f", seconds));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertUsers(int chunk, long userBase, String passwordHash) {
+        Random random = chunkRandom("users", chunk);
+        List<Object[]> users = new ArrayList<>();
+        int from = chunk * properties.getBatchSize();
+        int to = Math.min(properties.getUsers(), from + properties.getBatchSize());
+        for (int i = from; i < to; i++) {
+            long id = userBase + i + 1;
+            boolean enabled = random.nextDouble() >= properties.getDisabledRatio();
+            boolean expired = random.nextDouble() < properties.getExpiredRatio();
+            int roleMask = LibraryUserRoles.ROLE_USER.bit();
+            if (random.nextDouble() < properties.getAdminRatio()) {
+                roleMask |= LibraryUserRoles.ROLE_ADMIN.bit();
+            }
+            users.add(new Object[]{id, USERNAME_PREFIX + i, passwordHash, expired, enabled, roleMask});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "insert into users (id, username, password, expired, enabled, role_mask) values (?, ?, ?, ?, ?, ?)",
+                users));
+    }
+
+    // Returns the number of copies put on loan
+    private long insertBooks(int chunk, long userBase, Instant now, String[] words, String[] authors,
+                             ZipfDistribution wordRanks, ZipfDistribution authorRanks, ZipfDistribution borrowerRanks) {
+        Random random = chunkRandom("books", chunk);
+        int maxCopies = properties.getMaxCopiesPerBook();
+        long loanPeriodSeconds = properties.getLoanPeriod().toSeconds();
+        List<Object[]> books = new ArrayList<>();
+        List<Object[]> copies = new ArrayList<>();
+        long loans = 0;
+
+        int from = chunk * properties.getBatchSize();
+        int to = Math.min(properties.getBooks(), from + properties.getBatchSize());
+        for (int i = from; i < to; i++) {
+            long id = i + 1;
+            StringBuilder title = new StringBuilder(words[wordRanks.sample(random)]);
+            for (int w = random.nextInt(4); w > 0; w--) {
+                title.append(' ').append(words[wordRanks.sample(random)].toLowerCase());
+            }
+            String author = authors[authorRanks.sample(random)];
+
+            // Mostly one or two copies; a few titles are stocked up to maxCopies
+            int total = 1;
+            while (total < maxCopies && random.nextBoolean()) {
+                total++;
+            }
+            // Heat has mean 1, so the overall loan share stays close to borrowedRatio
+            double heat = 3 * Math.pow(random.nextDouble(), 2);
+            double loanProbability = Math.min(1, properties.getBorrowedRatio() * heat);
+
+            int available = 0;
+            for (int c = 0; c < total; c++) {
+                long copyId = (id - 1) * maxCopies + c + 1;
+                if (properties.getUsers() > 0 && random.nextDouble() < loanProbability) {
+                    long borrower = userBase + borrowerRanks.sample(random) + 1;
+                    boolean overdue = random.nextDouble() < properties.getOverdueRatio();
+                    Instant dueDate = overdue
+                            ? now.minusSeconds(1 + (long) (random.nextDouble() * 4 * loanPeriodSeconds))
+                            : now.plusSeconds(1 + (long) (random.nextDouble() * loanPeriodSeconds));
+                    copies.add(new Object[]{copyId, id, false, borrower, Timestamp.from(dueDate), overdue});
+                    loans++;
+                } else {
+                    copies.add(new Object[]{copyId, id, true, null, null, false});
+                    available++;
+                }
+            }
+            books.add(new Object[]{id, title.toString(), author, isbn13(id), available > 0, total, available});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("insert into books (id, title, author, isbn, available, total_copies, available_copies) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)", books);
+            jdbcTemplate.batchUpdate("insert into book_copies (id, book_id, available, borrower_id, due_date, overdue) " +
+                    "values (?, ?, ?, ?, ?, ?)", copies);
+        });
+        return loans;
+    }
+
+    // Runs one task per batch-sized chunk on the pool and logs progress
+    private void inChunks(ExecutorService executor, String what, int rows, IntConsumer task) {
+        int chunks = (rows + properties.getBatchSize() - 1) / properties.getBatchSize();
+        AtomicLong done = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int index = chunk;
+            futures.add(executor.submit(() -> {
+                task.accept(index);
+                long completed = done.incrementAndGet();
+                if (completed % Math.max(1, chunks / 10) == 0 || completed == chunks) {
+                    logger.info("Generating {}: {}/{} chunks", what, completed, chunks);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating " + what, e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Generating " + what + " failed", e.getCause());
+            }
+        }
+    }
+
+    private void truncate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from book_copies");
+            jdbcTemplate.update("delete from books");
+            jdbcTemplate.update("delete from users where username like '" + USERNAME_PREFIX + "%'");
+        });
+    }
+
+    // Places the sequence past the generated ids, leaving room for Hibernate's pooled optimizer
+    private void restartSequence(String sequence, long maxId) {
+        long next = maxId + 100;
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(product)) {
+            jdbcTemplate.queryForObject("select setval(?, ?)", Long.class, sequence, next);
+        } else {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + next);
+        }
+    }
+
+    private Random chunkRandom(String table, int chunk) {
+        return new Random(properties.getSeed() * 31 + table.hashCode() * 1_000_003L + chunk);
+    }
+
+    private long count(String table) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private static String[] vocabulary(Random random, int size) {
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 2 + random.nextInt(2); s > 0; s--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private static String[] authors(int size) {
+        int combinations = FIRST_NAMES.length * LAST_NAMES.length;
+        String[] authors = new String[size];
+        for (int i = 0; i < size; i++) {
+            String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+            authors[i] = i < combinations ? name : name + " " + (i / combinations + 1);
+        }
+        return authors;
+    }
+
+    // A valid ISBN-13 in the 979 range, unique per book id
+    static String isbn13(long id) {
+        String digits = "979" + String.format("%09d", id % 1_000_000_000L);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
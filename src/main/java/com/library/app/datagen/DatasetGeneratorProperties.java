@@ -0,0 +1,57 @@
+package com.library.app.datagen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Size and shape of the generated dataset, e.g. {@code --library.datagen.books=5000000}.
+ */
+@Data
+@ConfigurationProperties("library.datagen")
+public class DatasetGeneratorProperties {
+
+    private long seed = 42;
+
+    private int books = 1_000_000;
+
+    private int users = 200_000;
+
+    // Distinct authors; book counts per author follow a Zipf distribution
+    private int authors = 50_000;
+
+    // Distinct title words; word frequencies follow a Zipf distribution
+    private int vocabulary = 20_000;
+
+    private double zipfExponent = 1.07;
+
+    private int maxCopiesPerBook = 8;
+
+    // Share of copies on loan; popular titles are on loan more often
+    private double borrowedRatio = 0.3;
+
+    // Share of loans past their due date
+    private double overdueRatio = 0.1;
+
+    private Duration loanPeriod = Duration.ofDays(14);
+
+    private double adminRatio = 0.001;
+
+    private double disabledRatio = 0.02;
+
+    private double expiredRatio = 0.01;
+
+    // Every generated user gets this password, hashed once
+    private String password = "password";
+
+    private int batchSize = 5_000;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // Remove previously generated rows first instead of refusing to run on a non-empty catalog
+    private boolean truncate = false;
+
+    // Shut the application down once the data is written
+    private boolean exit = true;
+}
@@ -0,0 +1,65 @@
+package com.library.app.library.branch;
+
+import com.library.app.auth.model.UserPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/**
+ * The library branch that catalog queries run against. Requests use the branch of the
+ * authenticated user; work without a user (startup runners, scheduled jobs) sees every branch
+ * unless it pins one with {@link #callIn(String, Callable)}.
+ */
+public final class BranchContext {
+
+    public static final String DEFAULT_BRANCH = "main";
+
+    // Hibernate root tenant: no branch restriction
+    public static final String ALL_BRANCHES = "*";
+
+    // Branch names become partition table names, so keep them to plain identifiers
+    private static final Pattern NAME = Pattern.compile("[a-z][a-z0-9_]{0,31}");
+
+    private static final ThreadLocal<String> PINNED = new ThreadLocal<>();
+
+    private BranchContext() {
+    }
+
+    public static String current() {
+        String pinned = PINNED.get();
+        if (pinned != null) {
+            return pinned;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getBranch();
+        }
+        return ALL_BRANCHES;
+    }
+
+    // Branch that new catalog rows are written to
+    public static String forWrites() {
+        String branch = current();
+        return ALL_BRANCHES.equals(branch) ? DEFAULT_BRANCH : branch;
+    }
+
+    public static <T> T callIn(String branch, Callable<T> work) throws Exception {
+        String previous = PINNED.get();
+        PINNED.set(branch);
+        try {
+            return work.call();
+        } finally {
+            if (previous != null) {
+                PINNED.set(previous);
+            } else {
+                PINNED.remove();
+            }
+        }
+    }
+
+    public static boolean isValidName(String branch) {
+        return branch != null && NAME.matcher(branch).matches();
+    }
+}
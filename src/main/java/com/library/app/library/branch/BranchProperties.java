@@ -0,0 +1,22 @@
+package com.library.app.library.branch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Branches served by this deployment, e.g. {@code library.branches.names=main,east,west}. Each
+ * gets its own {@code books} partition on PostgreSQL; rows of other branches land in the default
+ * partition.
+ */
+@Data
+@ConfigurationProperties("library.branches")
+public class BranchProperties {
+
+    private List<String> names = new ArrayList<>(List.of(BranchContext.DEFAULT_BRANCH));
+
+    // Parallel queries for a cross-branch search
+    private int searchConcurrency = 4;
+}
@@ -0,0 +1,37 @@
+package com.library.app.library.branch;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Makes the branch the Hibernate tenant of each session, so every query on {@code Book} (whose
+ * branch is its {@code @TenantId}) is restricted to the caller's branch and, on PostgreSQL, only
+ * touches that branch's partition. {@link BranchContext#ALL_BRANCHES} is the root tenant.
+ */
+@Component
+public class BranchTenantResolver implements CurrentTenantIdentifierResolver<String>, HibernatePropertiesCustomizer {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return BranchContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(String tenantId) {
+        return BranchContext.ALL_BRANCHES.equals(tenantId);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
@@ -0,0 +1,121 @@
+package com.library.app.library.config;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.library.model.Book;
+import com.library.app.library.model.BookCopy;
+import com.library.app.library.model.SweeperWatermark;
+import com.library.app.library.repository.BookCopyRepository;
+import com.library.app.library.repository.SweeperWatermarkRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off migration for databases created before titles and copies were split: every book
+ * without copies gets a single copy carrying over the old {@code books.borrower_id} loan.
+ * Runs in chunks, recording its position in a {@link SweeperWatermark} so a restart resumes
+ * where it stopped; once the walk is complete the watermark is parked at the end and later
+ * boots skip the scan. Copies get their ids from the JPA generator, like copies created by the
+ * application.
+ */
+@Component
+public class BookCopyBackfill implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookCopyBackfill.class);
+    private static final int CHUNK_SIZE = 1000;
+    static final String WATERMARK = "book-copy-backfill";
+    // Position of a completed backfill
+    static final long DONE = Long.MAX_VALUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private SweeperWatermarkRepository watermarkRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void run(String... args) {
+        if (!hasLegacyBorrowerColumn()) {
+            return;
+        }
+        long lastId = watermarkRepository.findById(WATERMARK).map(SweeperWatermark::getLastId).orElse(0L);
+        if (lastId == DONE) {
+            return;
+        }
+
+        long migrated = 0;
+        while (true) {
+            List<Map<String, Object>> chunk = jdbcTemplate.queryForList(
+                    "select b.id, b.available, b.borrower_id from books b " +
+                            "where b.id > ? and not exists (select 1 from book_copies c where c.book_id = b.id) " +
+                            "order by b.id fetch first " + CHUNK_SIZE + " rows only", lastId);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            long position = ((Number) chunk.get(chunk.size() - 1).get("id")).longValue();
+            transactionTemplate.executeWithoutResult(status -> {
+                migrateChunk(chunk);
+                advance(position);
+            });
+            lastId = position;
+            migrated += chunk.size();
+        }
+        transactionTemplate.executeWithoutResult(status -> advance(DONE));
+
+        if (migrated > 0) {
+            logger.info("Created copies for {} books from the legacy borrower column", migrated);
+        }
+    }
+
+    private void migrateChunk(List<Map<String, Object>> chunk) {
+        for (Map<String, Object> row : chunk) {
+            long bookId = ((Number) row.get("id")).longValue();
+            boolean available = Boolean.TRUE.equals(row.get("available"));
+            Object borrowerId = row.get("borrower_id");
+
+            BookCopy copy = new BookCopy();
+            copy.setBook(entityManager.getReference(Book.class, bookId));
+            copy.setAvailable(available);
+            if (!available && borrowerId != null) {
+                copy.setBorrower(entityManager.getReference(LibraryUser.class, ((Number) borrowerId).longValue()));
+            }
+            bookCopyRepository.save(copy);
+            jdbcTemplate.update("update books set total_copies = 1, available_copies = ?, borrower_id = null " +
+                    "where id = ?", available ? 1 : 0, bookId);
+        }
+    }
+
+    private void advance(long position) {
+        SweeperWatermark watermark = watermarkRepository.findById(WATERMARK)
+                .orElseGet(() -> new SweeperWatermark(WATERMARK));
+        watermark.setLastId(position);
+        watermark.setUpdatedAt(Instant.now());
+        watermarkRepository.save(watermark);
+    }
+
+    private boolean hasLegacyBorrowerColumn() {
+        Integer columns = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns " +
+                        "where lower(table_name) = 'books' and lower(column_name) = 'borrower_id'", Integer.class);
+        return columns != null && columns > 0;
+    }
+}
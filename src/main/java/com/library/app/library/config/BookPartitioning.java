@@ -0,0 +1,47 @@
+package com.library.app.library.config;
+
+import com.library.app.library.service.BranchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-off migration to the branch-partitioned catalog on PostgreSQL: turns {@code books} into a
+ * table list-partitioned by branch and makes sure every configured branch has its partition.
+ * A no-op on other databases and once the partitions exist.
+ * <p>
+ * Runs as one transaction under a PostgreSQL advisory lock, so nodes booting together migrate
+ * one at a time and the later ones find the partitions already in place.
+ */
+@Component
+public class BookPartitioning implements CommandLineRunner {
+
+    private static final long LOCK_KEY = "book-partitioning".hashCode();
+
+    @Autowired
+    private BranchService branchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        if (!branchService.supportsPartitioning()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("select pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            if (!branchService.isPartitioned()) {
+                branchService.partitionBooks();
+            }
+            for (String branch : branchService.getBranches()) {
+                branchService.ensurePartition(branch);
+            }
+        });
+    }
+}
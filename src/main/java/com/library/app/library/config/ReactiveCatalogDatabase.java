@@ -0,0 +1,67 @@
+package com.library.app.library.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Owns the R2DBC connection pool used by the reactive catalog endpoints. The pool is kept out of
+ * the context on purpose: Spring Boot treats a {@code ConnectionFactory} bean as "this is an
+ * R2DBC application" and drops the JDBC DataSource that JPA runs on. Connections are opened on
+ * first use, so the application starts without the database being reachable.
+ */
+@Component
+public class ReactiveCatalogDatabase implements MeterBinder, DisposableBean {
+
+    private final ConnectionPool pool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCatalogDatabase(@Value("${library.reactive.url}") String url,
+                                   @Value("${library.reactive.username:}") String username,
+                                   @Value("${library.reactive.password:}") String password,
+                                   @Value("${library.reactive.max-pool-size:20}") int maxPoolSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("catalog")
+                .initialSize(0)
+                .maxSize(maxPoolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(pool);
+    }
+
+    public DatabaseClient getDatabaseClient() {
+        return databaseClient;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pool.getMetrics().ifPresent(metrics -> {
+            Gauge.builder("library.reactive.connections.acquired", metrics, m -> m.acquiredSize()).register(registry);
+            Gauge.builder("library.reactive.connections.idle", metrics, m -> m.idleSize()).register(registry);
+            Gauge.builder("library.reactive.connections.pending", metrics, m -> m.pendingAcquireSize())
+                    .register(registry);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+}
@@ -2,16 +2,22 @@ package com.library.app.library.controller;
 
 import com.library.app.auth.model.LibraryUser;
 import com.library.app.auth.service.LibraryUserService;
+import com.library.app.common.web.PageResponse;
+import com.library.app.library.idempotency.IdempotencyService;
 import com.library.app.library.model.Book;
+import com.library.app.library.branch.BranchContext;
+import com.library.app.library.recommendation.RecommendationService;
 import com.library.app.library.service.BookService;
+import com.library.app.library.stats.CatalogStatsService;
+import com.library.app.library.trending.TrendingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
-import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -24,6 +30,18 @@ public class BookController {
     @Autowired
     private LibraryUserService userDetailsService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private CatalogStatsService catalogStatsService;
+
 
     public BookController(BookService bookService) {
         this.bookService = bookService;
@@ -50,7 +68,7 @@ public class BookController {
             Page<Book> books = bookService.getAllBooks(pageable);
             return books.isEmpty()
                     ? ResponseEntity.status(HttpStatus.NO_CONTENT).build()
-                    : ResponseEntity.ok(books);
+                    : ResponseEntity.ok(PageResponse.of(books));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -62,11 +80,54 @@ public class BookController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getBookById(@PathVariable Long id) {
         return bookService.getBookById(id)
-                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .<ResponseEntity<?>>map(book -> {
+                    trendingService.recordView(book.getId());
+                    return ResponseEntity.ok(book);
+                })
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Book not found with ID: " + id));
     }
 
+    /**
+     * Most viewed and borrowed titles of the last hours, recent activity weighing more
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingBooks(@RequestParam(required = false) Integer limit) {
+        int max = trendingService.getTopK();
+        int size = limit == null ? max : limit;
+        if (size <= 0 || size > max) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + max + ".");
+        }
+        return ResponseEntity.ok(trendingService.trending(size));
+    }
+
+    /**
+     * Catalog totals of the caller's branch and its authors with the most titles, served from
+     * counters instead of count queries
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getCatalogStats(@RequestParam(required = false) Integer topAuthors) {
+        int max = catalogStatsService.getMaxTopAuthors();
+        int size = topAuthors == null ? max : topAuthors;
+        if (size < 0 || size > max) {
+            return ResponseEntity.badRequest().body("Top authors must be between 0 and " + max + ".");
+        }
+        return ResponseEntity.ok(catalogStatsService.getStats(BranchContext.current(), size));
+    }
+
+    /**
+     * Titles most often borrowed by patrons who borrowed this one, served from memory
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<?> getRelatedBooks(@PathVariable Long id, @RequestParam(required = false) Integer limit) {
+        int max = recommendationService.getTopK();
+        int size = limit == null ? max : limit;
+        if (size <= 0 || size > max) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + max + ".");
+        }
+        return ResponseEntity.ok(recommendationService.related(id, size));
+    }
+
     /**
      * Get books by title (paginated)
      */
@@ -81,7 +142,7 @@ public class BookController {
             Page<Book> books = bookService.getBooksByTitle(title, pageable);
             return books.isEmpty()
                     ? ResponseEntity.status(HttpStatus.NO_CONTENT).build()
-                    : ResponseEntity.ok(books);
+                    : ResponseEntity.ok(PageResponse.of(books));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -101,7 +162,7 @@ public class BookController {
             Page<Book> books = bookService.getBooksByAuthor(author, pageable);
             return books.isEmpty()
                     ? ResponseEntity.status(HttpStatus.NO_CONTENT).build()
-                    : ResponseEntity.ok(books);
+                    : ResponseEntity.ok(PageResponse.of(books));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -120,7 +181,7 @@ public class BookController {
             Page<Book> books = bookService.getAvailableBooks(pageable);
             return books.isEmpty()
                     ? ResponseEntity.status(HttpStatus.NO_CONTENT).build()
-                    : ResponseEntity.ok(books);
+                    : ResponseEntity.ok(PageResponse.of(books));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -139,7 +200,7 @@ public class BookController {
             Page<Book> books = bookService.getBorrowedBooks(pageable);
             return books.isEmpty()
                     ? ResponseEntity.status(HttpStatus.NO_CONTENT).build()
-                    : ResponseEntity.ok(books);
+                    : ResponseEntity.ok(PageResponse.of(books));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -167,7 +228,7 @@ public class BookController {
             Page<Book> books = bookService.getBorrowedBooksByUser(pageable,currentUser.get());
             return books.isEmpty()
                     ? ResponseEntity.status(HttpStatus.NO_CONTENT).build()
-                    : ResponseEntity.ok(books);
+                    : ResponseEntity.ok(PageResponse.of(books));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -177,7 +238,16 @@ public class BookController {
      * Create a new book
      */
     @PostMapping
-    public ResponseEntity<?> createBook(@RequestBody Book book) {
+    public ResponseEntity<?> createBook(
+            @RequestBody Book book,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal
+    ) {
+        return idempotencyService.execute(idempotencyKey, principal.getName() + " POST /api/books", book,
+                () -> doCreateBook(book));
+    }
+
+    private ResponseEntity<?> doCreateBook(Book book) {
         try {
             if (book.getTitle() == null || book.getTitle().trim().isEmpty()) {
                 return ResponseEntity.badRequest().body("Book title cannot be empty.");
@@ -190,6 +260,21 @@ public class BookController {
         }
     }
 
+    /**
+     * Add copies to an existing book
+     */
+    @PostMapping("/{id}/copies")
+    public ResponseEntity<?> addCopies(@PathVariable Long id, @RequestParam(defaultValue = "1") int count) {
+        try {
+            return bookService.addCopies(id, count)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body("Book not found with ID: " + id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Update an existing book
      */
@@ -200,17 +285,13 @@ public class BookController {
                     existing.setTitle(updatedBook.getTitle());
                     existing.setAuthor(updatedBook.getAuthor());
                     existing.setIsbn(updatedBook.getIsbn());
-                    existing.setAvailable(updatedBook.isAvailable());
-
-                    if (existing.isAvailable()) {
-                        existing.setBorrower(updatedBook.getBorrower());
-                    } else {
-                        existing.setBorrower(null); // Clear borrower if book is available
+                    // Availability follows the copies and is only changed by borrow/return
+                    try {
+                        return ResponseEntity.ok(bookService.saveBook(existing));
+                    } catch (ObjectOptimisticLockingFailureException e) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT)
+                                .body("Book was changed concurrently, please retry.");
                     }
-                    existing.setBorrower(updatedBook.getBorrower());
-
-                    return ResponseEntity.ok(bookService.saveBook(existing));
-
                 })
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Book not found with ID: " + id));
@@ -222,8 +303,14 @@ public class BookController {
     @PostMapping("/{id}/borrow")
     public ResponseEntity<?> borrowBook(
             @PathVariable Long id,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Principal principal
     ) {
+        return idempotencyService.execute(idempotencyKey, principal.getName() + " POST /api/books/" + id + "/borrow",
+                () -> doBorrowBook(id, principal));
+    }
+
+    private ResponseEntity<?> doBorrowBook(Long id, Principal principal) {
         try {
             Optional<LibraryUser> _u = userDetailsService.getUserByUsername(principal.getName());
 
@@ -248,17 +335,25 @@ public class BookController {
      * Return a borrowed book
      */
     @PostMapping("/{id}/return")
-    public ResponseEntity<?> returnBook(@PathVariable Long id, Principal principal) {
+    public ResponseEntity<?> returnBook(
+            @PathVariable Long id,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal
+    ) {
+        return idempotencyService.execute(idempotencyKey, principal.getName() + " POST /api/books/" + id + "/return",
+                () -> doReturnBook(id, principal));
+    }
+
+    private ResponseEntity<?> doReturnBook(Long id, Principal principal) {
         try {
             Optional<LibraryUser> _u = userDetailsService.getUserByUsername(principal.getName());
-            Optional<Book> _b = bookService.getBookById(id);
 
-            if (_u.isEmpty() || _b.isEmpty() || _b.get().getBorrower() == null || !Objects.equals(_u.get().getId(), _b.get().getBorrower().getId())) {
+            if (_u.isEmpty() || bookService.getLoan(id, _u.get()).isEmpty()) {
                 return  ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
                         .body("You are not authorized to return this book.");
             }
 
-            Optional<Book> returned = bookService.returnBook(id);
+            Optional<Book> returned = bookService.returnBook(id, _u.get());
             return returned.<ResponseEntity<?>>map(ResponseEntity::ok)
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body("Book not found or not currently borrowed."));
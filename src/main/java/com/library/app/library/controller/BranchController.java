@@ -0,0 +1,81 @@
+package com.library.app.library.controller;
+
+import com.library.app.library.branch.BranchContext;
+import com.library.app.library.model.Book;
+import com.library.app.library.service.BranchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/branches")
+public class BranchController {
+
+    @Autowired
+    private BranchService branchService;
+
+    /**
+     * List the configured branches
+     */
+    @GetMapping
+    public ResponseEntity<?> getBranches() {
+        return ResponseEntity.ok(branchService.getBranches());
+    }
+
+    /**
+     * Search books by title across all branches
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchAllBranches(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        if (size <= 0) {
+            return ResponseEntity.badRequest().body("Invalid pagination parameters.");
+        }
+        List<Book> books = branchService.searchAllBranches(title, size);
+        return books.isEmpty()
+                ? ResponseEntity.status(HttpStatus.NO_CONTENT).build()
+                : ResponseEntity.ok(books);
+    }
+
+    /**
+     * Create the partition of a branch (PostgreSQL only)
+     */
+    @PostMapping("/{branch}")
+    public ResponseEntity<?> createPartition(@PathVariable String branch) {
+        if (!BranchContext.isValidName(branch)) {
+            return ResponseEntity.badRequest().body("Invalid branch name: " + branch);
+        }
+        if (!branchService.supportsPartitioning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Branch partitions require PostgreSQL.");
+        }
+        return branchService.ensurePartition(branch)
+                ? ResponseEntity.status(HttpStatus.CREATED).body(Map.of("partition", "books_" + branch))
+                : ResponseEntity.ok(Map.of("partition", "books_" + branch));
+    }
+
+    /**
+     * Detach a branch's books and copies into archive tables (PostgreSQL only)
+     */
+    @PostMapping("/{branch}/detach")
+    public ResponseEntity<?> detach(@PathVariable String branch) {
+        if (!BranchContext.isValidName(branch)) {
+            return ResponseEntity.badRequest().body("Invalid branch name: " + branch);
+        }
+        if (!branchService.supportsPartitioning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Branch partitions require PostgreSQL.");
+        }
+        try {
+            return ResponseEntity.ok(Map.of("archive", branchService.detach(branch)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
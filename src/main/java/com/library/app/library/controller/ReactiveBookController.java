@@ -0,0 +1,78 @@
+package com.library.app.library.controller;
+
+import com.library.app.library.branch.BranchContext;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.ReactiveBookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read-only variant of the {@link BookController} catalog endpoints.
+ * Lists are streamed as newline-delimited JSON, one book per line, in title order; the servlet
+ * thread is released while the database is queried and the next row is only pulled once the
+ * previous one has been written. {@code limit} caps the number of rows streamed. Results are
+ * limited to the caller's branch, resolved before the servlet thread is released.
+ */
+@RestController
+@RequestMapping("/api/reactive/books")
+public class ReactiveBookController {
+
+    @Autowired
+    private ReactiveBookRepository reactiveBookRepository;
+
+    /**
+     * Stream all books
+     */
+    @GetMapping
+    public ResponseEntity<?> getAllBooks(@RequestParam(required = false) Long limit) {
+        return stream(reactiveBookRepository.findAll(BranchContext.current()), limit);
+    }
+
+    /**
+     * Get a book by ID
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getBookById(@PathVariable Long id) {
+        return reactiveBookRepository.findById(BranchContext.current(), id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Book not found with ID: " + id));
+    }
+
+    /**
+     * Stream books by title
+     */
+    @GetMapping("/title/{title}")
+    public ResponseEntity<?> getBooksByTitle(@PathVariable String title, @RequestParam(required = false) Long limit) {
+        return stream(reactiveBookRepository.findByTitleContainingIgnoreCase(BranchContext.current(), title), limit);
+    }
+
+    /**
+     * Stream books by author
+     */
+    @GetMapping("/author/{author}")
+    public ResponseEntity<?> getBooksByAuthor(@PathVariable String author, @RequestParam(required = false) Long limit) {
+        return stream(reactiveBookRepository.findByAuthorContainingIgnoreCase(BranchContext.current(), author), limit);
+    }
+
+    /**
+     * Stream available books
+     */
+    @GetMapping("/available")
+    public ResponseEntity<?> getAvailableBooks(@RequestParam(required = false) Long limit) {
+        return stream(reactiveBookRepository.findByAvailableTrue(BranchContext.current()), limit);
+    }
+
+    private static ResponseEntity<?> stream(Flux<Book> books, Long limit) {
+        if (limit != null && limit <= 0) {
+            return ResponseEntity.badRequest().body("Limit must be positive.");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(limit == null ? books : books.take(limit, true));
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.app.library.event;
+
+/**
+ * Ring buffer slot describing a committed circulation change. Instances are pre-allocated and
+ * reused by {@link CirculationEventBus}; listeners must copy what they need and must not keep a
+ * reference to the event after {@code onEvent} returns.
+ */
+public final class CirculationEvent {
+
+    // Marks the absence of a user, e.g. for catalog changes
+    public static final long NO_USER = -1L;
+
+    private CirculationEventType type;
+    private long bookId;
+    private long userId;
+    private long timestamp;
+
+    void set(CirculationEventType type, long bookId, long userId, long timestamp) {
+        this.type = type;
+        this.bookId = bookId;
+        this.userId = userId;
+        this.timestamp = timestamp;
+    }
+
+    public CirculationEventType getType() {
+        return type;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    // Epoch millis of the commit
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "CirculationEvent{type=" + type + ", bookId=" + bookId + ", userId=" + userId
+                + ", timestamp=" + timestamp + "}";
+    }
+}
@@ -0,0 +1,117 @@
+package com.library.app.library.event;
+
+import com.library.app.common.ring.BatchEventProcessor;
+import com.library.app.common.ring.RingBuffer;
+import com.library.app.common.ring.WaitStrategy;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process bus for committed circulation changes. Producers write into a pre-allocated
+ * {@link RingBuffer}; every {@link CirculationEventListener} bean consumes it on its own thread.
+ */
+@Component
+public class CirculationEventBus implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(CirculationEventBus.class);
+
+    private final RingBuffer<CirculationEvent> ringBuffer;
+    private final List<CirculationEventListener> listeners;
+    private final int maxBatchSize;
+    private final List<BatchEventProcessor<CirculationEvent>> processors = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public CirculationEventBus(@Value("${library.events.buffer-size:4096}") int bufferSize,
+                               @Value("${library.events.wait-strategy:blocking}") String waitStrategy,
+                               @Value("${library.events.max-batch-size:256}") int maxBatchSize,
+                               ObjectProvider<CirculationEventListener> listeners,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.ringBuffer = new RingBuffer<>(bufferSize, CirculationEvent::new, WaitStrategy.forName(waitStrategy));
+        this.listeners = listeners.orderedStream().toList();
+        this.maxBatchSize = maxBatchSize;
+
+        // Processors gate the ring from construction on, so nothing published before start() is lost
+        for (CirculationEventListener listener : this.listeners) {
+            processors.add(new BatchEventProcessor<>(listener.name(), ringBuffer, listener, maxBatchSize));
+        }
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    /**
+     * Publishes a committed change. Does not allocate; parks briefly only when the slowest
+     * listener is a full buffer behind.
+     */
+    public void publish(CirculationEventType type, long bookId, long userId, long timestamp) {
+        long sequence = ringBuffer.next();
+        try {
+            ringBuffer.get(sequence).set(type, bookId, userId, timestamp);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    // Events published but not yet consumed by the slowest listener
+    public long getQueueDepth() {
+        return ringBuffer.depth();
+    }
+
+    public int getBufferSize() {
+        return ringBuffer.getBufferSize();
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        Gauge.builder("library.events.queue.depth", this, CirculationEventBus::getQueueDepth)
+                .description("Circulation events not yet consumed by the slowest listener")
+                .register(registry);
+        Gauge.builder("library.events.buffer.size", this, CirculationEventBus::getBufferSize)
+                .register(registry);
+        for (BatchEventProcessor<CirculationEvent> processor : processors) {
+            Gauge.builder("library.events.consumer.lag", processor, BatchEventProcessor::lag)
+                    .description("Circulation events published but not yet handled by the listener")
+                    .tag("consumer", processor.getName())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void start() {
+        for (BatchEventProcessor<CirculationEvent> processor : processors) {
+            Thread thread = new Thread(processor, "circulation-" + processor.getName());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        running = true;
+        logger.info("Circulation event bus started: bufferSize={}, listeners={}, maxBatchSize={}",
+                ringBuffer.getBufferSize(), listeners.size(), maxBatchSize);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        processors.forEach(BatchEventProcessor::halt);
+        for (Thread thread : threads) {
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
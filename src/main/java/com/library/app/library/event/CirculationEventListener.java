@@ -0,0 +1,15 @@
+package com.library.app.library.event;
+
+import com.library.app.common.ring.EventHandler;
+
+/**
+ * Subscriber of the circulation event bus. Every listener bean gets its own consumer thread and
+ * sees each event exactly once, in publish order.
+ */
+public interface CirculationEventListener extends EventHandler<CirculationEvent> {
+
+    // Used for the consumer thread name and the lag metric tag
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,99 @@
+package com.library.app.library.event;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+
+/**
+ * Publishes circulation events once the surrounding transaction has committed. Events raised
+ * inside a transaction are staged in a reusable per-thread buffer and handed to the
+ * {@link CirculationEventBus} after commit, or dropped on rollback.
+ */
+@Component
+public class CirculationEventPublisher implements TransactionSynchronization {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Autowired
+    private CirculationEventBus eventBus;
+
+    private final ThreadLocal<PendingEvents> pending = ThreadLocal.withInitial(PendingEvents::new);
+
+    public void bookCreated(long bookId) {
+        publish(CirculationEventType.BOOK_CREATED, bookId, CirculationEvent.NO_USER);
+    }
+
+    public void bookUpdated(long bookId) {
+        publish(CirculationEventType.BOOK_UPDATED, bookId, CirculationEvent.NO_USER);
+    }
+
+    public void bookDeleted(long bookId) {
+        publish(CirculationEventType.BOOK_DELETED, bookId, CirculationEvent.NO_USER);
+    }
+
+    public void bookBorrowed(long bookId, long userId) {
+        publish(CirculationEventType.BOOK_BORROWED, bookId, userId);
+    }
+
+    public void bookReturned(long bookId, long userId) {
+        publish(CirculationEventType.BOOK_RETURNED, bookId, userId);
+    }
+
+    public void publish(CirculationEventType type, long bookId, long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventBus.publish(type, bookId, userId, System.currentTimeMillis());
+            return;
+        }
+        PendingEvents events = pending.get();
+        if (!events.registered) {
+            TransactionSynchronizationManager.registerSynchronization(this);
+            events.registered = true;
+        }
+        events.add(type, bookId, userId);
+    }
+
+    @Override
+    public void afterCommit() {
+        PendingEvents events = pending.get();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < events.size; i++) {
+            eventBus.publish(events.types[i], events.bookIds[i], events.userIds[i], now);
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        pending.get().clear();
+    }
+
+    // Parallel arrays so that staging an event does not allocate once the buffer has grown
+    private static final class PendingEvents {
+        private CirculationEventType[] types = new CirculationEventType[INITIAL_CAPACITY];
+        private long[] bookIds = new long[INITIAL_CAPACITY];
+        private long[] userIds = new long[INITIAL_CAPACITY];
+        private int size;
+        private boolean registered;
+
+        private void add(CirculationEventType type, long bookId, long userId) {
+            if (size == types.length) {
+                int capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                bookIds = Arrays.copyOf(bookIds, capacity);
+                userIds = Arrays.copyOf(userIds, capacity);
+            }
+            types[size] = type;
+            bookIds[size] = bookId;
+            userIds[size] = userId;
+            size++;
+        }
+
+        private void clear() {
+            Arrays.fill(types, 0, size, null);
+            size = 0;
+            registered = false;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.library.app.library.event;
+
+public enum CirculationEventType {
+    BOOK_CREATED,
+    BOOK_UPDATED,
+    BOOK_DELETED,
+    BOOK_BORROWED,
+    BOOK_RETURNED
+}
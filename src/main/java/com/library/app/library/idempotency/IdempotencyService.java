@@ -0,0 +1,206 @@
+package com.library.app.library.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per {@code Idempotency-Key}. A retry with a known key gets the
+ * recorded response replayed; a duplicate arriving while the first request is still running waits
+ * for it and gets the same response. Server errors (5xx) are not recorded, so they can be retried.
+ * A key reused with a different request body is rejected with 422 instead of replayed.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${library.idempotency.wait-timeout:PT30S}")
+    private Duration waitTimeout;
+
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public ResponseEntity<?> execute(String key, String scope, Supplier<ResponseEntity<?>> action) {
+        return execute(key, scope, null, action);
+    }
+
+    /**
+     * @param key          the client's idempotency key; the action simply runs when it is absent
+     * @param scope        identifies the caller and operation, so keys never collide across users or endpoints
+     * @param requestBody  the deserialized request body, or null; retries must send the same one
+     */
+    public ResponseEntity<?> execute(String key, String scope, Object requestBody, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must not exceed " + MAX_KEY_LENGTH + " characters.");
+        }
+
+        String storeKey = scope + "|" + key;
+        // Taken before the action runs, which may modify the body
+        String fingerprint = fingerprint(requestBody);
+        Optional<IdempotentResponse> recorded = store.find(storeKey).filter(response -> !response.isPending());
+        if (recorded.isPresent()) {
+            return replay(recorded.get(), fingerprint);
+        }
+
+        CompletableFuture<IdempotentResponse> execution = new CompletableFuture<>();
+        CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(storeKey, execution);
+        if (running != null) {
+            // Same key already executing on this node
+            return await(running, fingerprint);
+        }
+
+        try {
+            // The previous execution may have finished between the lookup above and putIfAbsent
+            recorded = store.find(storeKey).filter(response -> !response.isPending());
+            if (recorded.isPresent()) {
+                execution.complete(recorded.get());
+                return replay(recorded.get(), fingerprint);
+            }
+            if (!store.tryBegin(storeKey, fingerprint)) {
+                // Claimed by another node
+                return awaitStore(storeKey, fingerprint);
+            }
+            ResponseEntity<?> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                store.abandon(storeKey);
+                throw e;
+            }
+            IdempotentResponse outcome = record(response, fingerprint);
+            if (outcome.status() < 500) {
+                store.save(storeKey, outcome);
+            } else {
+                store.abandon(storeKey);
+            }
+            execution.complete(outcome);
+            return response;
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(storeKey, execution);
+        }
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<IdempotentResponse> running, String fingerprint) {
+        try {
+            return replay(running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS), fingerprint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return stillInProgress();
+        } catch (TimeoutException e) {
+            return stillInProgress();
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Original request failed: " + e.getCause().getMessage());
+        }
+    }
+
+    private ResponseEntity<?> awaitStore(String storeKey, String fingerprint) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        long backoffMillis = 10;
+        while (System.nanoTime() < deadline) {
+            Optional<IdempotentResponse> recorded = store.find(storeKey);
+            if (recorded.isEmpty()) {
+                // The other node gave up on it; let the client retry
+                return stillInProgress();
+            }
+            if (!recorded.get().isPending() || !matches(recorded.get(), fingerprint)) {
+                return replay(recorded.get(), fingerprint);
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, 500);
+        }
+        return stillInProgress();
+    }
+
+    private ResponseEntity<?> stillInProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("A request with this " + HEADER + " is still in progress.");
+    }
+
+    private ResponseEntity<?> replay(IdempotentResponse response, String fingerprint) {
+        if (!matches(response, fingerprint)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(HEADER + " was already used with a different request body.");
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.status())
+                .header(REPLAYED_HEADER, "true");
+        if (response.contentType() != null) {
+            builder.contentType(MediaType.parseMediaType(response.contentType()));
+        }
+        return response.body() == null ? builder.build() : builder.body(response.body());
+    }
+
+    // Records written before fingerprints were stored match any body
+    private static boolean matches(IdempotentResponse response, String fingerprint) {
+        return response.fingerprint() == null || response.fingerprint().equals(fingerprint);
+    }
+
+    private String fingerprint(Object requestBody) {
+        try {
+            byte[] json = requestBody == null ? new byte[0] : objectMapper.writeValueAsBytes(requestBody);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request body is not serializable: " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private IdempotentResponse record(ResponseEntity<?> response, String fingerprint) {
+        Object body = response.getBody();
+        int status = response.getStatusCode().value();
+        if (body == null) {
+            return new IdempotentResponse(status, null, null, fingerprint);
+        }
+        if (body instanceof String text) {
+            return new IdempotentResponse(status, MediaType.TEXT_PLAIN_VALUE, text, fingerprint);
+        }
+        try {
+            return new IdempotentResponse(status, MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsString(body),
+                    fingerprint);
+        } catch (JsonProcessingException e) {
+            logger.warn("Response for idempotent request is not serializable, replays will be empty: {}", e.getMessage());
+            return new IdempotentResponse(status, null, null, fingerprint);
+        }
+    }
+}
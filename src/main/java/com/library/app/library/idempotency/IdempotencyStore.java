@@ -0,0 +1,26 @@
+package com.library.app.library.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Storage for completed idempotent responses, keyed by the scoped idempotency key.
+ */
+public interface IdempotencyStore {
+
+    Optional<IdempotentResponse> find(String key);
+
+    void save(String key, IdempotentResponse response);
+
+    /**
+     * Claims the key for a request with the given body fingerprint before executing it. Returns
+     * false when another node already holds it; stores that are local to the node never need to
+     * refuse.
+     */
+    default boolean tryBegin(String key, String fingerprint) {
+        return true;
+    }
+
+    // Releases a claim taken by tryBegin when the request failed without a storable response
+    default void abandon(String key) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.library.app.library.idempotency;
+
+/**
+ * Outcome of a request recorded under an idempotency key. A record with status 0 marks a request
+ * that another node has started but not finished. The fingerprint is a hash of the request body
+ * the key was first used with.
+ */
+public record IdempotentResponse(int status, String contentType, String body, String fingerprint) {
+
+    static final int PENDING = 0;
+
+    static IdempotentResponse pending(String fingerprint) {
+        return new IdempotentResponse(PENDING, null, null, fingerprint);
+    }
+
+    public boolean isPending() {
+        return status == PENDING;
+    }
+}
@@ -0,0 +1,78 @@
+package com.library.app.library.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, node-local store. Evicts the least recently used key beyond {@code max-entries} and
+ * ignores entries older than the TTL.
+ * <p>
+ * Guarded by a {@link ReentrantLock} rather than {@code synchronized} so that contended callers
+ * park without pinning their carrier thread when running on virtual threads.
+ */
+@Component
+@ConditionalOnProperty(name = "library.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public InMemoryIdempotencyStore(@Value("${library.idempotency.ttl:PT24H}") Duration ttl,
+                                    @Value("${library.idempotency.max-entries:100000}") int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (System.currentTimeMillis() - entry.storedAt > ttlMillis) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(entry.response);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response) {
+        lock.lock();
+        try {
+            entries.put(key, new Entry(response, System.currentTimeMillis()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry(IdempotentResponse response, long storedAt) {
+    }
+}
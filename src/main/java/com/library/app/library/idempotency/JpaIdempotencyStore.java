@@ -0,0 +1,116 @@
+package com.library.app.library.idempotency;
+
+import com.library.app.library.model.IdempotencyRecord;
+import com.library.app.library.repository.IdempotencyRecordRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Shared store for multi-node deployments. A pending row claims the key while the request runs,
+ * so a duplicate arriving on another node waits for the outcome instead of executing again. The
+ * claim is a short lease, so the key frees up soon if its node dies mid-request; the row only
+ * gets the full TTL once the response is stored.
+ */
+@Component
+@ConditionalOnProperty(name = "library.idempotency.store", havingValue = "db")
+public class JpaIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpaIdempotencyStore.class);
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate newTransaction;
+    private final Duration ttl;
+    private final Duration lease;
+
+    public JpaIdempotencyStore(PlatformTransactionManager transactionManager,
+                               @Value("${library.idempotency.ttl:PT24H}") Duration ttl,
+                               @Value("${library.idempotency.lease:PT1M}") Duration lease) {
+        // Independent of the caller's transaction: a claim must be visible to other nodes at once
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.lease = lease;
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return repository.findById(key)
+                .filter(record -> record.getExpiresAt().isAfter(Instant.now()))
+                .map(record -> new IdempotentResponse(record.getStatus(), record.getContentType(), record.getBody(),
+                        record.getFingerprint()));
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response) {
+        newTransaction.executeWithoutResult(status -> repository.save(toRecord(key, response, ttl)));
+    }
+
+    @Override
+    public boolean tryBegin(String key, String fingerprint) {
+        try {
+            Boolean claimed = newTransaction.execute(status -> {
+                Optional<IdempotencyRecord> existing = repository.findById(key);
+                if (existing.isPresent()) {
+                    if (existing.get().getExpiresAt().isAfter(Instant.now())) {
+                        return false;
+                    }
+                    // Replace an expired row for the same key, including the lease of a node that died mid-request
+                    repository.delete(existing.get());
+                    entityManager.flush();
+                }
+                // persist, not save: a concurrent claim must fail on the primary key instead of being merged
+                entityManager.persist(toRecord(key, IdempotentResponse.pending(fingerprint), lease));
+                entityManager.flush();
+                return true;
+            });
+            return Boolean.TRUE.equals(claimed);
+        } catch (PersistenceException | DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void abandon(String key) {
+        newTransaction.executeWithoutResult(status -> repository.deleteById(key));
+    }
+
+    @Scheduled(fixedDelayString = "${library.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        Integer purged = newTransaction.execute(status -> repository.deleteExpired(Instant.now()));
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private IdempotencyRecord toRecord(String key, IdempotentResponse response, Duration expiresIn) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(key);
+        record.setStatus(response.status());
+        record.setContentType(response.contentType());
+        record.setBody(response.body());
+        record.setFingerprint(response.fingerprint());
+        record.setExpiresAt(Instant.now().plus(expiresIn));
+        return record;
+    }
+}
@@ -1,12 +1,31 @@
 package com.library.app.library.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.library.app.auth.model.LibraryUser;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.library.app.library.branch.BranchContext;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A title in the catalog. The physical copies live in {@link BookCopy}; {@code availableCopies}
+ * is a denormalized counter kept in step with them on every borrow/return, and {@code available}
+ * mirrors {@code availableCopies > 0} so that the available-titles list is served from an index.
+ * Each title belongs to one branch; on PostgreSQL the table is list-partitioned by branch (see
+ * {@code BookPartitioning}), so the primary key there is {@code (id, branch)}.
+ */
 @Entity(name = "books")
+@Table(indexes = @Index(name = "idx_books_branch_available_title", columnList = "branch, available, title"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_books_isbn_branch", columnNames = {"isbn", "branch"}))
 @Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Book {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE)
@@ -17,14 +36,37 @@ public class Book {
 
     private String author;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String isbn;
 
+    // Set from the session's branch on insert; every query on books is restricted to it
+    @TenantId
+    @Column(nullable = false, length = 32)
+    @ColumnDefault("'" + BranchContext.DEFAULT_BRANCH + "'")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String branch;
+
     @Column(nullable = false)
     private boolean available = true;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "borrower_id", referencedColumnName = "id")
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int totalCopies = 1;
+
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int availableCopies = 1;
+
+    // Bumped by every write, including the counter updates in BookRepository
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
-    private LibraryUser borrower;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<BookCopy> copies = new ArrayList<>();
 }
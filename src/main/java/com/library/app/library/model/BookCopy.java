@@ -0,0 +1,54 @@
+package com.library.app.library.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.library.app.auth.model.LibraryUser;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * A physical copy of a {@link Book}. A copy is either on the shelf or lent to one borrower until
+ * its due date.
+ */
+@Entity(name = "book_copies")
+@Table(indexes = {
+        @Index(name = "idx_book_copies_book_available", columnList = "book_id, available"),
+        @Index(name = "idx_book_copies_borrower", columnList = "borrower_id"),
+        @Index(name = "idx_book_copies_due_date", columnList = "due_date, id")
+})
+@Data
+public class BookCopy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    // No foreign key: on PostgreSQL books is partitioned and its key is (id, branch)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Book book;
+
+    @Column(nullable = false)
+    private boolean available = true;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "borrower_id", referencedColumnName = "id")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private LibraryUser borrower;
+
+    // Set while the copy is on loan
+    @Column(name = "due_date")
+    private Instant dueDate;
+
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean overdue = false;
+}
@@ -0,0 +1,31 @@
+package com.library.app.library.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Entity(name = "idempotency_keys")
+@Table(indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+@Data
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 512)
+    private String key;
+
+    // 0 while the request is still executing
+    @Column(nullable = false)
+    private int status;
+
+    private String contentType;
+
+    @Column(length = 65535)
+    private String body;
+
+    // SHA-256 of the request body the key was first used with
+    @Column(length = 64)
+    private String fingerprint;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,9 @@
+package com.library.app.library.model;
+
+import java.time.Instant;
+
+/**
+ * Loan picked up by the overdue sweeper.
+ */
+public record OverdueLoan(Long copyId, Instant dueDate, Long bookId, Long borrowerId) {
+}
@@ -0,0 +1,35 @@
+package com.library.app.library.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Position of an incremental job in its keyset walk, so that a restart resumes where the last
+ * committed chunk ended instead of starting over.
+ */
+@Entity(name = "sweeper_watermarks")
+@Data
+@NoArgsConstructor
+public class SweeperWatermark {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Instant lastDueDate;
+
+    @Column(nullable = false)
+    private Long lastId;
+
+    private Instant updatedAt;
+
+    public SweeperWatermark(String name) {
+        this.name = name;
+        this.lastDueDate = Instant.EPOCH;
+        this.lastId = 0L;
+    }
+}
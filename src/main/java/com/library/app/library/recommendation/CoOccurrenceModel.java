@@ -0,0 +1,176 @@
+package com.library.app.library.recommendation;
+
+import com.library.app.common.collect.LongIntHashMap;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Sparse item-item co-occurrence counts built incrementally from borrows.
+ * <p>
+ * Each patron's most recent borrows are remembered; a new borrow adds one to the pair count of
+ * the new title with each of them, in both directions. Per title only the strongest
+ * {@code maxNeighbors} pairs are kept: when a title collects more, its weakest pairs are pruned
+ * down to half of that. Patrons unseen for the longest time are forgotten beyond
+ * {@code maxPatrons}.
+ * <p>
+ * Not thread-safe; {@link RecommendationService} owns the single instance.
+ */
+public class CoOccurrenceModel {
+
+    private final int historySize;
+    private final int maxNeighbors;
+    private final Map<Long, LongIntHashMap> neighbors = new HashMap<>();
+    private final Map<Long, long[]> histories;
+
+    public CoOccurrenceModel(int historySize, int maxNeighbors, int maxPatrons) {
+        this.historySize = historySize;
+        this.maxNeighbors = maxNeighbors;
+        this.histories = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > maxPatrons;
+            }
+        };
+    }
+
+    /**
+     * Counts a borrow and calls {@code changed} for every title whose pair counts changed.
+     */
+    public void recordBorrow(long patronId, long bookId, LongConsumer changed) {
+        // Slot 0 holds the number of remembered titles, followed by the titles oldest first
+        long[] history = histories.computeIfAbsent(patronId, id -> new long[historySize + 1]);
+        int count = (int) history[0];
+        for (int i = 1; i <= count; i++) {
+            if (history[i] == bookId) {
+                return;
+            }
+        }
+        for (int i = 1; i <= count; i++) {
+            increment(history[i], bookId);
+            increment(bookId, history[i]);
+            changed.accept(history[i]);
+        }
+        if (count > 0) {
+            changed.accept(bookId);
+        }
+
+        if (count == historySize) {
+            System.arraycopy(history, 2, history, 1, historySize - 1);
+            history[historySize] = bookId;
+        } else {
+            history[count + 1] = bookId;
+            history[0] = count + 1;
+        }
+    }
+
+    /**
+     * Forgets a deleted title and calls {@code changed} for the titles that lost it as a neighbor.
+     * Pruning is one-sided, so a title can still list the deleted one after the deleted title
+     * dropped it; every map is scanned rather than only the deleted title's own neighbors.
+     * Deletes are rare, so the full pass is cheap enough.
+     */
+    public void removeBook(long bookId, LongConsumer changed) {
+        neighbors.remove(bookId);
+        neighbors.forEach((title, pairs) -> {
+            if (pairs.remove(bookId)) {
+                changed.accept(title);
+            }
+        });
+        // Otherwise the next borrow by one of its patrons would pair the deleted title again
+        for (long[] history : histories.values()) {
+            int count = (int) history[0];
+            for (int i = 1; i <= count; i++) {
+                if (history[i] == bookId) {
+                    System.arraycopy(history, i + 1, history, i, count - i);
+                    history[count] = 0;
+                    history[0] = count - 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * The {@code limit} titles most often borrowed together with the given one, strongest
+     * first; ties go to the lower id.
+     */
+    public RelatedBook[] topRelated(long bookId, int limit) {
+        LongIntHashMap pairs = neighbors.get(bookId);
+        if (pairs == null || pairs.isEmpty()) {
+            return new RelatedBook[0];
+        }
+        Strongest strongest = strongest(pairs, limit);
+        RelatedBook[] related = new RelatedBook[strongest.size];
+        for (int i = 0; i < strongest.size; i++) {
+            related[i] = new RelatedBook(strongest.ids[i], strongest.scores[i]);
+        }
+        return related;
+    }
+
+    public int pairCount(long bookId) {
+        LongIntHashMap pairs = neighbors.get(bookId);
+        return pairs == null ? 0 : pairs.size();
+    }
+
+    public int titleCount() {
+        return neighbors.size();
+    }
+
+    private void increment(long bookId, long neighbor) {
+        LongIntHashMap pairs = neighbors.computeIfAbsent(bookId, id -> new LongIntHashMap());
+        pairs.addTo(neighbor, 1);
+        if (pairs.size() > maxNeighbors) {
+            prune(pairs, maxNeighbors / 2);
+        }
+    }
+
+    // Keeps the strongest pairs only
+    private static void prune(LongIntHashMap pairs, int retain) {
+        Strongest strongest = strongest(pairs, retain);
+        pairs.clear();
+        for (int i = 0; i < strongest.size; i++) {
+            pairs.put(strongest.ids[i], strongest.scores[i]);
+        }
+    }
+
+    // Single pass keeping a sorted top-limit by insertion; limit and map sizes are small
+    private static Strongest strongest(LongIntHashMap pairs, int limit) {
+        Strongest strongest = new Strongest(Math.min(limit, pairs.size()));
+        pairs.forEach(strongest::offer);
+        return strongest;
+    }
+
+    private static final class Strongest {
+        private final long[] ids;
+        private final int[] scores;
+        private int size;
+
+        private Strongest(int capacity) {
+            ids = new long[capacity];
+            scores = new int[capacity];
+        }
+
+        private void offer(long id, int score) {
+            int position = size;
+            while (position > 0 && stronger(id, score, ids[position - 1], scores[position - 1])) {
+                position--;
+            }
+            if (position == ids.length) {
+                return;
+            }
+            int moved = Math.min(size, ids.length - 1) - position;
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(scores, position, scores, position + 1, moved);
+            ids[position] = id;
+            scores[position] = score;
+            size = Math.min(size + 1, ids.length);
+        }
+
+        private static boolean stronger(long id, int score, long otherId, int otherScore) {
+            return score > otherScore || score == otherScore && id < otherId;
+        }
+    }
+}
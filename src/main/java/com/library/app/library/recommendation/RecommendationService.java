@@ -0,0 +1,182 @@
+package com.library.app.library.recommendation;
+
+import com.library.app.common.collect.LongIntHashMap;
+import com.library.app.library.event.CirculationEvent;
+import com.library.app.library.event.CirculationEventListener;
+import com.library.app.library.event.CirculationEventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * "Patrons also borrowed" recommendations.
+ * <p>
+ * Consumes committed borrows from the circulation event bus into a {@link CoOccurrenceModel}.
+ * At the end of each batch the top-k list of every title whose counts changed is rebuilt and
+ * published as an immutable array, so {@link #related(long, int)} is a single map lookup and
+ * never touches the model or the database. The model is seeded after startup, on a background
+ * thread and a page of patrons at a time, from the loans currently on record; until that is
+ * done no recommendations are served.
+ */
+@Component
+public class RecommendationService implements CirculationEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+    private static final RelatedBook[] NONE = new RelatedBook[0];
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final CoOccurrenceModel model;
+    private final int topK;
+    private final boolean bootstrap;
+    private final int seedBatchSize;
+    private volatile boolean seeded;
+    private final ConcurrentHashMap<Long, RelatedBook[]> published = new ConcurrentHashMap<>();
+    // Titles changed since the last publish, with a placeholder value
+    private final LongIntHashMap dirty = new LongIntHashMap(256);
+    // Guards the model and the dirty set; only contended while the model is being seeded
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RecommendationService(@Value("${library.recommendations.top-k:10}") int topK,
+                                 @Value("${library.recommendations.max-neighbors:80}") int maxNeighbors,
+                                 @Value("${library.recommendations.history-size:20}") int historySize,
+                                 @Value("${library.recommendations.max-patrons:100000}") int maxPatrons,
+                                 @Value("${library.recommendations.bootstrap:true}") boolean bootstrap,
+                                 @Value("${library.recommendations.seed-batch-size:1000}") int seedBatchSize) {
+        this.model = new CoOccurrenceModel(historySize, Math.max(maxNeighbors, 2 * topK), maxPatrons);
+        this.topK = topK;
+        this.bootstrap = bootstrap;
+        this.seedBatchSize = seedBatchSize;
+        this.seeded = !bootstrap;
+    }
+
+    @Override
+    public String name() {
+        return "recommendations";
+    }
+
+    // Up to limit titles borrowed together with the given one, strongest first
+    public List<RelatedBook> related(long bookId, int limit) {
+        if (!seeded) {
+            return List.of();
+        }
+        RelatedBook[] related = published.getOrDefault(bookId, NONE);
+        return List.of(related).subList(0, Math.min(limit, related.length));
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    @Override
+    public void onEvent(CirculationEvent event, long sequence, boolean endOfBatch) {
+        CirculationEventType type = event.getType();
+        if (type == CirculationEventType.BOOK_BORROWED || type == CirculationEventType.BOOK_DELETED) {
+            lock.lock();
+            try {
+                if (type == CirculationEventType.BOOK_BORROWED) {
+                    model.recordBorrow(event.getUserId(), event.getBookId(), this::markDirty);
+                } else {
+                    model.removeBook(event.getBookId(), this::markDirty);
+                    published.remove(event.getBookId());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (endOfBatch) {
+            publishChanges();
+        }
+    }
+
+    private void markDirty(long bookId) {
+        dirty.put(bookId, 1);
+    }
+
+    private void publishChanges() {
+        lock.lock();
+        try {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            dirty.forEach((bookId, unused) -> {
+                RelatedBook[] related = model.topRelated(bookId, topK);
+                if (related.length == 0) {
+                    published.remove(bookId);
+                } else {
+                    published.put(bookId, related);
+                }
+            });
+            dirty.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    // Off the startup thread, so that a large loan table does not delay readiness
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!bootstrap) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                seedLoans();
+            } catch (RuntimeException e) {
+                logger.warn("Seeding recommendations failed; serving those of new borrows only", e);
+            } finally {
+                seeded = true;
+            }
+        }, "recommendations-seed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Replays the current loans, patron by patron, so that recommendations are available soon
+     * after a restart. Walks the loans in keyset pages of {@code seedBatchSize} patrons on the
+     * borrower index. Borrows consumed meanwhile are simply counted as well.
+     */
+    long seedLoans() {
+        long loans = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<Long> patrons = jdbcTemplate.queryForList("select distinct borrower_id from book_copies " +
+                    "where borrower_id > ? order by borrower_id limit ?", Long.class, after, seedBatchSize);
+            if (patrons.isEmpty()) {
+                break;
+            }
+            long last = patrons.get(patrons.size() - 1);
+            List<long[]> page = jdbcTemplate.query("select borrower_id, book_id from book_copies " +
+                            "where borrower_id > ? and borrower_id <= ? order by borrower_id, due_date",
+                    (row, rowNum) -> new long[]{row.getLong(1), row.getLong(2)}, after, last);
+            lock.lock();
+            try {
+                for (long[] loan : page) {
+                    model.recordBorrow(loan[0], loan[1], this::markDirty);
+                }
+            } finally {
+                lock.unlock();
+            }
+            publishChanges();
+            loans += page.size();
+            after = last;
+        }
+        logger.info("Seeded recommendations from {} loans: {} titles with related titles", loans, published.size());
+        return loans;
+    }
+}
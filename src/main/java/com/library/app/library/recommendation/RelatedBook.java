@@ -0,0 +1,8 @@
+package com.library.app.library.recommendation;
+
+/**
+ * A title borrowed by patrons who also borrowed the requested one, with the number of such
+ * co-borrowings.
+ */
+public record RelatedBook(long bookId, int score) {
+}
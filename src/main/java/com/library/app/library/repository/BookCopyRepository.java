@@ -0,0 +1,60 @@
+package com.library.app.library.repository;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.library.model.Book;
+import com.library.app.library.model.BookCopy;
+import com.library.app.library.model.OverdueLoan;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+
+    // Lock one shelved copy of the title, skipping copies other borrowers are claiming right now
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    Optional<BookCopy> findFirstByBookIdAndAvailableTrue(Long bookId);
+
+    // The copy of a title currently lent to a borrower
+    Optional<BookCopy> findFirstByBookIdAndBorrower(Long bookId, LibraryUser borrower);
+
+    // Puts a lent copy back on the shelf; 0 when it was already returned
+    @Modifying(flushAutomatically = true)
+    @Query("update book_copies c set c.available = true, c.borrower = null, c.dueDate = null, c.overdue = false " +
+            "where c.id = :id and c.borrower = :borrower and c.available = false")
+    int returnCopy(@Param("id") Long id, @Param("borrower") LibraryUser borrower);
+
+    // Next chunk of loans past their due date, in (dueDate, id) order after the given position
+    @Query("select new com.library.app.library.model.OverdueLoan(c.id, c.dueDate, c.book.id, c.borrower.id) " +
+            "from book_copies c where c.dueDate < :now " +
+            "and (c.dueDate > :lastDueDate or (c.dueDate = :lastDueDate and c.id > :lastId)) " +
+            "order by c.dueDate, c.id")
+    List<OverdueLoan> findOverdueAfter(@Param("now") Instant now,
+                                       @Param("lastDueDate") Instant lastDueDate,
+                                       @Param("lastId") Long lastId,
+                                       Limit limit);
+
+    @Modifying
+    @Query("update book_copies c set c.overdue = true where c.id in :ids and c.dueDate is not null")
+    int markOverdue(@Param("ids") Collection<Long> ids);
+
+    // Find all titles borrowed by a specific user
+    @Query("select b from books b where exists " +
+            "(select c.id from book_copies c where c.book = b and c.borrower = :borrower)")
+    Page<Book> findBooksByBorrower(@Param("borrower") LibraryUser borrower, Pageable pageable);
+}
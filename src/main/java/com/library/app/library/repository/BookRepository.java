@@ -1,13 +1,14 @@
 package com.library.app.library.repository;
 
 import com.library.app.library.model.Book;
-import com.library.app.auth.model.LibraryUser;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,16 +20,32 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     // Find all books by author
     Page<Book> findByAuthorContainingIgnoreCase(String author, Pageable pageable);
 
-    Page<Book> findByAvailableFalseAndBorrower(LibraryUser borrower, Pageable pageable);
-
-    // Find all available books
+    // Find all titles with at least one copy on the shelf
     Page<Book> findByAvailableTrue(Pageable pageable);
 
-    // Find all borrowed books
-    Page<Book> findByAvailableFalse(Pageable pageable);
-
-    // Find all books borrowed by a specific user
-    Page<Book> findByBorrower(LibraryUser borrower,Pageable pageable);
+    // Find all titles with at least one copy on loan
+    @Query("select b from books b where b.availableCopies < b.totalCopies")
+    Page<Book> findWithCopiesOnLoan(Pageable pageable);
 
     Optional<Book> findByIsbn(String isbn);
+
+    // Take one copy off the shelf; 0 rows means no copy was available
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update books b set b.availableCopies = b.availableCopies - 1, b.version = b.version + 1, " +
+            "b.available = case when b.availableCopies > 1 then true else false end " +
+            "where b.id = :id and b.availableCopies > 0")
+    int reserveCopy(@Param("id") Long id);
+
+    // Put one copy back on the shelf
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update books b set b.availableCopies = b.availableCopies + 1, b.available = true, " +
+            "b.version = b.version + 1 " +
+            "where b.id = :id and b.availableCopies < b.totalCopies")
+    int releaseCopy(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update books b set b.totalCopies = b.totalCopies + :count, " +
+            "b.availableCopies = b.availableCopies + :count, b.available = true, b.version = b.version + 1 " +
+            "where b.id = :id")
+    int addCopies(@Param("id") Long id, @Param("count") int count);
 }
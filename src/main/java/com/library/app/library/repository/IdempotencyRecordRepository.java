@@ -0,0 +1,18 @@
+package com.library.app.library.repository;
+
+import com.library.app.library.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("delete from idempotency_keys k where k.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
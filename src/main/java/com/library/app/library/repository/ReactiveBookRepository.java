@@ -0,0 +1,95 @@
+package com.library.app.library.repository;
+
+import com.library.app.library.branch.BranchContext;
+import com.library.app.library.config.ReactiveCatalogDatabase;
+import com.library.app.library.model.Book;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking, read-only access to the {@code books} table over R2DBC. Rows are fetched in
+ * batches of {@code fetch-size} as the subscriber requests them, so a slow client holds one
+ * cursor instead of a materialized page. Writes stay on {@link BookRepository}.
+ * <p>
+ * These queries bypass Hibernate's tenant filter, so every method takes the caller's branch
+ * (resolved on the request thread) and adds it to the predicate to keep partition pruning;
+ * {@link BranchContext#ALL_BRANCHES} reads across branches.
+ */
+@Repository
+public class ReactiveBookRepository {
+
+    private static final String SELECT =
+            "select id, title, author, isbn, available, total_copies, available_copies, branch, version from books ";
+    private static final String ORDER = " order by title, id";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveBookRepository(ReactiveCatalogDatabase database,
+                                  @Value("${library.reactive.fetch-size:64}") int fetchSize) {
+        this.databaseClient = database.getDatabaseClient();
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<Book> findById(String branch, long id) {
+        return branch(databaseClient.sql(SELECT + where(branch, "id = :id")), branch)
+                .bind("id", id)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    public Flux<Book> findAll(String branch) {
+        return stream(databaseClient.sql(SELECT + where(branch, null) + ORDER), branch);
+    }
+
+    public Flux<Book> findByTitleContainingIgnoreCase(String branch, String title) {
+        return stream(databaseClient.sql(SELECT + where(branch, "upper(title) like upper(:pattern)") + ORDER)
+                .bind("pattern", "%" + title + "%"), branch);
+    }
+
+    public Flux<Book> findByAuthorContainingIgnoreCase(String branch, String author) {
+        return stream(databaseClient.sql(SELECT + where(branch, "upper(author) like upper(:pattern)") + ORDER)
+                .bind("pattern", "%" + author + "%"), branch);
+    }
+
+    // Served from idx_books_branch_available_title
+    public Flux<Book> findByAvailableTrue(String branch) {
+        return stream(databaseClient.sql(SELECT + where(branch, "available = true") + ORDER), branch);
+    }
+
+    private static String where(String branch, String condition) {
+        boolean allBranches = BranchContext.ALL_BRANCHES.equals(branch);
+        if (allBranches) {
+            return condition == null ? "" : "where " + condition;
+        }
+        return condition == null ? "where branch = :branch" : "where branch = :branch and " + condition;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec branch(DatabaseClient.GenericExecuteSpec spec, String branch) {
+        return BranchContext.ALL_BRANCHES.equals(branch) ? spec : spec.bind("branch", branch);
+    }
+
+    private Flux<Book> stream(DatabaseClient.GenericExecuteSpec spec, String branch) {
+        return branch(spec, branch).filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    private static Book toBook(Readable row) {
+        Book book = new Book();
+        book.setId(row.get("id", Long.class));
+        book.setTitle(row.get("title", String.class));
+        book.setAuthor(row.get("author", String.class));
+        book.setIsbn(row.get("isbn", String.class));
+        book.setAvailable(Boolean.TRUE.equals(row.get("available", Boolean.class)));
+        book.setTotalCopies(row.get("total_copies", Integer.class));
+        book.setAvailableCopies(row.get("available_copies", Integer.class));
+        book.setBranch(row.get("branch", String.class));
+        book.setVersion(row.get("version", Long.class));
+        return book;
+    }
+}
@@ -0,0 +1,20 @@
+package com.library.app.library.repository;
+
+import com.library.app.library.model.SweeperWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SweeperWatermarkRepository extends JpaRepository<SweeperWatermark, String> {
+
+    // Locked so that sweepers on several nodes process chunks one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from sweeper_watermarks w where w.name = :name")
+    Optional<SweeperWatermark> findForUpdate(@Param("name") String name);
+}
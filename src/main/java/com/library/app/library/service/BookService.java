@@ -1,99 +1,235 @@
 package com.library.app.library.service;
 
-import com.library.app.auth.service.LibraryUserService;
+import com.library.app.auth.repository.LibraryUserRepository;
 import com.library.app.library.model.Book;
 import com.library.app.auth.model.LibraryUser;
+import com.library.app.common.invalidation.InvalidationPublisher;
+import com.library.app.config.ReadYourWritesTracker;
+import com.library.app.library.branch.BranchContext;
+import com.library.app.library.event.CirculationEventPublisher;
+import com.library.app.library.model.BookCopy;
+import com.library.app.library.repository.BookCopyRepository;
 import com.library.app.library.repository.BookRepository;
+import com.library.app.library.stats.CatalogStatsService;
+import com.library.app.library.stats.TitleState;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 
 @Service
 @Transactional
+@EnableConfigurationProperties(LoanLimitProperties.class)
 public class BookService {
 
     @Autowired
     private  BookRepository bookRepository;
 
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private CirculationEventPublisher circulationEvents;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+
+    @Autowired
+    private InvalidationPublisher invalidations;
+
+    @Autowired
+    private CatalogStatsService catalogStats;
 
-    // Save or update a book
+    @Autowired
+    private LibraryUserRepository userRepository;
+
+    @Autowired
+    private LoanLimitProperties loanLimits;
+
+    @Value("${library.loans.period:P14D}")
+    private Duration loanPeriod;
+
+    // Save or update a book; new titles get their copies created alongside
     public Book saveBook(Book book) {
-        return bookRepository.save(book);
+        boolean created = book.getId() == null;
+        if (created) {
+            book.setBranch(BranchContext.forWrites());
+            int copies = Math.max(1, book.getTotalCopies());
+            book.setTotalCopies(copies);
+            book.setAvailableCopies(copies);
+            book.setAvailable(true);
+            for (int i = 0; i < copies; i++) {
+                book.getCopies().add(newCopy(book));
+            }
+        }
+        // Loads the row the merge below would load anyway
+        TitleState before = created ? null : bookRepository.findById(book.getId()).map(TitleState::of).orElse(null);
+        // Flushed so that the invalidation carries the new version
+        Book saved = bookRepository.saveAndFlush(book);
+        catalogStats.recordChange(before, TitleState.of(saved));
+        if (created) {
+            circulationEvents.bookCreated(saved.getId());
+        } else {
+            circulationEvents.bookUpdated(saved.getId());
+        }
+        invalidations.bookChanged(saved.getId(), saved.getVersion());
+        return saved;
     }
 
     // Get all books (paged)
+    @Transactional(readOnly = true)
     public Page<Book> getAllBooks(Pageable pageable) {
         return bookRepository.findAll(pageable);
     }
 
     // Get book by ID
+    @Transactional(readOnly = true)
     public Optional<Book> getBookById(Long id) {
         return bookRepository.findById(id);
     }
 
     // Get books by title
+    @Transactional(readOnly = true)
     public Page<Book> getBooksByTitle(String title, Pageable pageable) {
         return bookRepository.findByTitleContainingIgnoreCase(title, pageable);
     }
 
     // Get books by author
+    @Transactional(readOnly = true)
     public Page<Book> getBooksByAuthor(String author, Pageable pageable) {
         return bookRepository.findByAuthorContainingIgnoreCase(author, pageable);
     }
 
-    // Get available books
+    // Get titles with at least one copy available
+    @Transactional(readOnly = true)
     public Page<Book> getAvailableBooks(Pageable pageable) {
         return bookRepository.findByAvailableTrue(pageable);
     }
 
-    // Get borrowed books
+    // Get titles with at least one copy on loan
+    @Transactional(readOnly = true)
     public Page<Book> getBorrowedBooks(Pageable pageable) {
-        return bookRepository.findByAvailableFalse(pageable);
+        return bookRepository.findWithCopiesOnLoan(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Book> getBorrowedBooksByUser(Pageable pageable, LibraryUser user) {
-        return bookRepository.findByAvailableFalseAndBorrower(user,pageable);
+        return bookCopyRepository.findBooksByBorrower(user, pageable);
     }
 
     // Get books borrowed by a user
+    @Transactional(readOnly = true)
     public Page<Book> getBooksByBorrower(LibraryUser borrower, Pageable pageable) {
-        return bookRepository.findByBorrower(borrower, pageable);
+        return bookCopyRepository.findBooksByBorrower(borrower, pageable);
     }
 
-    // Borrow a book
-    public Optional<Book> borrowBook(Long bookId, LibraryUser user) {
+    // The copy of a title currently lent to the user, if any
+    @Transactional(readOnly = true)
+    public Optional<BookCopy> getLoan(Long bookId, LibraryUser user) {
+        return bookCopyRepository.findFirstByBookIdAndBorrower(bookId, user);
+    }
+
+    // Add shelved copies to an existing title
+    public Optional<Book> addCopies(Long bookId, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of copies must be positive.");
+        }
         return bookRepository.findById(bookId).map(book -> {
-            if (!book.isAvailable()) {
-                throw new IllegalStateException("Book is already borrowed");
+            for (int i = 0; i < count; i++) {
+                bookCopyRepository.save(newCopy(book));
             }
+            bookRepository.addCopies(bookId, count);
+            circulationEvents.bookUpdated(bookId);
+            return changed(bookRepository.findById(bookId), count, count).orElseThrow();
+        });
+    }
 
+    // Borrow a copy of a book
+    public Optional<Book> borrowBook(Long bookId, LibraryUser user) {
+        // The loan limit is checked on the patron's row first, so a patron at the limit never
+        // locks the title row, which every borrower of the title contends on
+        int limit = loanLimits.limitFor(user.getRoles());
+        if (userRepository.claimLoan(user.getId(), limit) == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                return Optional.empty();
+            }
+            throw new IllegalStateException("Loan limit of " + limit + " active loans reached");
+        }
+        // The counter is the source of truth for availability; claim from it before touching copies
+        if (bookRepository.reserveCopy(bookId) == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                userRepository.releaseLoan(user.getId());
+                return Optional.empty();
+            }
+            // Throwing rolls the claimed loan back
+            throw new IllegalStateException("Book is already borrowed");
+        }
+
+        BookCopy copy = bookCopyRepository.findFirstByBookIdAndAvailableTrue(bookId)
+                .orElseThrow(() -> new IllegalStateException("No shelved copy found for book " + bookId));
+        copy.setAvailable(false);
+        copy.setBorrower(user);
+        copy.setDueDate(Instant.now().plus(loanPeriod));
+        copy.setOverdue(false);
+
+        readYourWrites.recordWrite(user.getUsername());
+        circulationEvents.bookBorrowed(bookId, user.getId());
+        return changed(bookRepository.findById(bookId), 0, -1);
+    }
 
-            book.setAvailable(false);
-            book.setBorrower(user);
+    // Return the copy of a book lent to the user
+    public Optional<Book> returnBook(Long bookId, LibraryUser user) {
+        if (!bookRepository.existsById(bookId)) {
+            return Optional.empty();
+        }
+        BookCopy copy = bookCopyRepository.findFirstByBookIdAndBorrower(bookId, user)
+                .orElseThrow(() -> new IllegalStateException("Book is not currently borrowed"));
+        // Conditional, so that of two concurrent returns of the same loan only one moves the counters
+        if (bookCopyRepository.returnCopy(copy.getId(), user) == 0) {
+            throw new IllegalStateException("Book is not currently borrowed");
+        }
+        // Past the guard above, so a loan is taken off the patron's counter exactly once. Patron
+        // before title, in the same order as borrowBook takes the two row locks
+        userRepository.releaseLoan(user.getId());
+        bookRepository.releaseCopy(bookId);
+
+        readYourWrites.recordWrite(user.getUsername());
+        circulationEvents.bookReturned(bookId, user.getId());
+        return changed(bookRepository.findById(bookId), 0, 1);
+    }
 
-            return bookRepository.save(book);
+    // Delete a book
+    public void deleteBook(Long id) {
+        userRepository.releaseLoansOfBook(id);
+        bookRepository.findById(id).ifPresent(book -> {
+            catalogStats.recordChange(TitleState.of(book), null);
+            bookRepository.delete(book);
         });
+        circulationEvents.bookDeleted(id);
+        invalidations.bookChanged(id, null);
     }
 
-    // Return a book
-    public Optional<Book> returnBook(Long bookId) {
-        return bookRepository.findById(bookId).map(book -> {
-            if (book.isAvailable()) {
-                throw new IllegalStateException("Book is not currently borrowed");
-            }
-            book.setAvailable(true);
-            book.setBorrower(null);
-            return bookRepository.save(book);
+    // Invalidates cached copies of a book whose counters were just moved by the given deltas
+    private Optional<Book> changed(Optional<Book> book, int addedCopies, int addedAvailableCopies) {
+        book.ifPresent(changed -> {
+            invalidations.bookChanged(changed.getId(), changed.getVersion());
+            TitleState after = TitleState.of(changed);
+            catalogStats.recordChange(after.minus(addedCopies, addedAvailableCopies), after);
         });
+        return book;
     }
 
-    // Delete a book
-    public void deleteBook(Long id) {
-        bookRepository.deleteById(id);
+    private BookCopy newCopy(Book book) {
+        BookCopy copy = new BookCopy();
+        copy.setBook(book);
+        copy.setAvailable(true);
+        return copy;
     }
 }
@@ -0,0 +1,208 @@
+package com.library.app.library.service;
+
+import com.library.app.library.branch.BranchContext;
+import com.library.app.library.branch.BranchProperties;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Branch administration and cross-branch reads.
+ * <p>
+ * On PostgreSQL {@code books} is list-partitioned by branch: each configured branch has its own
+ * {@code books_<branch>} partition and everything else lands in {@code books_default}. A branch
+ * can be detached into a stand-alone archive table, together with its copies, without touching
+ * the partitions of the other branches.
+ */
+@Service
+@EnableConfigurationProperties(BranchProperties.class)
+public class BranchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BranchService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final BranchProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ExecutorService searchExecutor;
+
+    public BranchService(BranchProperties properties, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        AtomicInteger threads = new AtomicInteger();
+        this.searchExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getSearchConcurrency()), task -> {
+            Thread thread = new Thread(task, "branch-search-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        searchExecutor.shutdownNow();
+    }
+
+    public List<String> getBranches() {
+        return List.copyOf(properties.getNames());
+    }
+
+    /**
+     * Searches every configured branch in parallel, one single-partition query each, and merges
+     * the results in title order.
+     */
+    public List<Book> searchAllBranches(String title, int size) {
+        List<CompletableFuture<List<Book>>> searches = new ArrayList<>();
+        for (String branch : properties.getNames()) {
+            searches.add(CompletableFuture.supplyAsync(() -> searchBranch(branch, title, size), searchExecutor));
+        }
+
+        List<Book> merged = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<Book>> search : searches) {
+                merged.addAll(search.join());
+            }
+        } catch (CompletionException e) {
+            searches.forEach(search -> search.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        merged.sort(Comparator.comparing(Book::getTitle).thenComparing(Book::getBranch).thenComparing(Book::getId));
+        return merged.size() > size ? merged.subList(0, size) : merged;
+    }
+
+    private List<Book> searchBranch(String branch, String title, int size) {
+        try {
+            return BranchContext.callIn(branch, () -> readOnlyTransactionTemplate.execute(status ->
+                    bookRepository.findByTitleContainingIgnoreCase(title, PageRequest.of(0, size, Sort.by("title")))
+                            .getContent()));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean supportsPartitioning() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+
+    public boolean isPartitioned() {
+        Integer partitioned = jdbcTemplate.queryForObject(
+                "select count(*) from pg_partitioned_table p join pg_class c on c.oid = p.partrelid " +
+                        "where c.relname = 'books' and c.relnamespace = current_schema()::regnamespace", Integer.class);
+        return partitioned != null && partitioned > 0;
+    }
+
+    /**
+     * Converts a plain {@code books} table into a table partitioned by branch with a default
+     * partition. Rows are copied in one transaction, so run it during a maintenance window on
+     * large catalogs.
+     */
+    public void partitionBooks() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("alter table books rename to books_unpartitioned");
+            jdbcTemplate.execute("create table books (like books_unpartitioned including defaults) partition by list (branch)");
+            jdbcTemplate.execute("create table books_default partition of books default");
+            jdbcTemplate.execute("insert into books select * from books_unpartitioned");
+            jdbcTemplate.execute("drop table books_unpartitioned cascade");
+            // Keys of a partitioned table have to include the partition column
+            jdbcTemplate.execute("alter table books add primary key (id, branch)");
+            jdbcTemplate.execute("alter table books add constraint uk_books_isbn_branch unique (isbn, branch)");
+            jdbcTemplate.execute("create index idx_books_branch_available_title on books (branch, available, title)");
+        });
+        logger.info("Partitioned the books table by branch");
+    }
+
+    /**
+     * Creates the partition of a branch if it does not exist yet, moving its rows out of the
+     * default partition. Writes to the default partition wait until the partition is attached,
+     * so no row of the branch can land there between the move and the attach.
+     */
+    public boolean ensurePartition(String branch) {
+        checkName(branch);
+        String partition = "books_" + branch;
+        if (tableExists(partition)) {
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("lock table books_default in share row exclusive mode");
+            jdbcTemplate.execute("create table " + partition + " (like books including defaults)");
+            jdbcTemplate.update("with moved as (delete from books_default where branch = ? returning *) " +
+                    "insert into " + partition + " select * from moved", branch);
+            jdbcTemplate.execute("alter table books attach partition " + partition + " for values in ('" + branch + "')");
+        });
+        logger.info("Created books partition {}", partition);
+        return true;
+    }
+
+    /**
+     * Detaches the partition of a branch and moves its copies next to it, leaving both as
+     * archive tables outside the live catalog. Returns the name of the archived books table.
+     * Refused while copies of the branch are out on loan: archiving them would drop the loans
+     * without telling the borrowers and leave their {@code active_loans} counters too high.
+     */
+    public String detach(String branch) {
+        checkName(branch);
+        String partition = "books_" + branch;
+        if (!tableExists(partition)) {
+            throw new IllegalArgumentException("Branch has no partition: " + branch);
+        }
+        String suffix = branch + "_" + System.currentTimeMillis() / 1000;
+        String archivedBooks = "books_archive_" + suffix;
+        String archivedCopies = "book_copies_archive_" + suffix;
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("alter table books detach partition " + partition);
+            jdbcTemplate.execute("alter table " + partition + " rename to " + archivedBooks);
+            // Checked after the detach: its lock keeps new borrows of the branch out until commit
+            Long loans = jdbcTemplate.queryForObject("select count(*) from book_copies c " +
+                    "where c.borrower_id is not null and c.book_id in (select id from " + archivedBooks + ")", Long.class);
+            if (loans != null && loans > 0) {
+                throw new IllegalStateException("Branch " + branch + " still has " + loans + " copies on loan");
+            }
+            jdbcTemplate.execute("create table " + archivedCopies + " as select c.* from book_copies c " +
+                    "where c.book_id in (select id from " + archivedBooks + ")");
+            jdbcTemplate.execute("delete from book_copies c where c.book_id in (select id from " + archivedBooks + ")");
+        });
+        logger.info("Detached branch {} into {} and {}", branch, archivedBooks, archivedCopies);
+        return archivedBooks;
+    }
+
+    private boolean tableExists(String table) {
+        Boolean exists = jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, table);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private static void checkName(String branch) {
+        if (!BranchContext.isValidName(branch)) {
+            throw new IllegalArgumentException("Invalid branch name: " + branch);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.app.library.service;
+
+import com.library.app.auth.repository.LibraryUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Repairs drift between the {@code users.active_loans} counters and the loans recorded on
+ * {@code book_copies}, e.g. after loans were imported or copies were removed outside
+ * {@link BookService}.
+ * <p>
+ * Walks the users in primary key order in bounded chunks. Each chunk is locked in its own short
+ * transaction before its loans are counted from the borrower index, so a borrow or return of
+ * these users either committed before the count or waits for the chunk to finish.
+ */
+@Component
+public class LoanCounterReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanCounterReconciler.class);
+
+    @Autowired
+    private LibraryUserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${library.loans.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${library.loans.reconcile-interval:PT1H}",
+            initialDelayString = "${library.loans.reconcile-initial-delay:PT15M}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    // Returns the number of counters that were corrected
+    public int reconcile() {
+        int repaired = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = userRepository.findIdsAfter(lastId, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer chunk = transactionTemplate.execute(status -> {
+                userRepository.lockForUpdate(ids);
+                return userRepository.reconcileActiveLoans(ids);
+            });
+            repaired += chunk == null ? 0 : chunk;
+            lastId = ids.get(ids.size() - 1);
+        }
+        if (repaired > 0) {
+            logger.warn("Repaired the active loan counters of {} users", repaired);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.app.library.service;
+
+import com.library.app.auth.model.LibraryUserRoles;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Active loans a patron may hold, by role, e.g. {@code library.loans.limits.ROLE_USER=5}. A user
+ * with several roles gets the highest of their limits; roles without a limit get
+ * {@code default-limit}.
+ */
+@Data
+@ConfigurationProperties("library.loans")
+public class LoanLimitProperties {
+
+    private Map<LibraryUserRoles, Integer> limits = new EnumMap<>(Map.of(
+            LibraryUserRoles.ROLE_USER, 5,
+            LibraryUserRoles.ROLE_ADMIN, 20));
+
+    private int defaultLimit = 5;
+
+    public int limitFor(Set<LibraryUserRoles> roles) {
+        int limit = -1;
+        if (roles != null) {
+            for (LibraryUserRoles role : roles) {
+                limit = Math.max(limit, limits.getOrDefault(role, defaultLimit));
+            }
+        }
+        return limit < 0 ? defaultLimit : limit;
+    }
+}
@@ -0,0 +1,19 @@
+package com.library.app.library.service;
+
+import com.library.app.library.model.OverdueLoan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Default notifier until a mail/push channel is wired in; replace it with a @Primary bean
+@Component
+public class LoggingOverdueNotifier implements OverdueNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingOverdueNotifier.class);
+
+    @Override
+    public void notifyOverdue(OverdueLoan loan) {
+        logger.info("Loan of copy {} (book {}) by user {} was due {}",
+                loan.copyId(), loan.bookId(), loan.borrowerId(), loan.dueDate());
+    }
+}
@@ -0,0 +1,12 @@
+package com.library.app.library.service;
+
+import com.library.app.library.model.OverdueLoan;
+
+/**
+ * Tells a borrower that a loan has become overdue. Called once per loan by the
+ * {@link OverdueSweeper}, concurrently and off the sweeper thread.
+ */
+public interface OverdueNotifier {
+
+    void notifyOverdue(OverdueLoan loan);
+}
@@ -0,0 +1,113 @@
+package com.library.app.library.service;
+
+import com.library.app.library.model.OverdueLoan;
+import com.library.app.library.model.SweeperWatermark;
+import com.library.app.library.repository.BookCopyRepository;
+import com.library.app.library.repository.SweeperWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Marks loans past their due date as overdue and notifies the borrowers.
+ * <p>
+ * Walks the {@code (due_date, id)} index in bounded chunks, each in its own short transaction
+ * that flags the whole chunk with one UPDATE and advances a persisted watermark. Loans are only
+ * ever due later than the watermark when they are created, so a run never rescans loans it has
+ * already handled and a restart resumes after the last committed chunk.
+ */
+@Component
+public class OverdueSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueSweeper.class);
+    static final String WATERMARK = "overdue-loans";
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private SweeperWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OverdueNotifier notifier;
+
+    @Value("${library.overdue.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${library.overdue.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    private final SimpleAsyncTaskExecutor notificationExecutor;
+
+    public OverdueSweeper(@Value("${library.overdue.notify-concurrency:64}") int notifyConcurrency) {
+        notificationExecutor = new SimpleAsyncTaskExecutor("overdue-notify-");
+        // One virtual thread per notification where the runtime has them; the limit keeps the
+        // downstream channel from being flooded either way
+        notificationExecutor.setVirtualThreads(JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE));
+        notificationExecutor.setConcurrencyLimit(notifyConcurrency);
+    }
+
+    @Scheduled(fixedDelayString = "${library.overdue.sweep-interval:PT5M}",
+            initialDelayString = "${library.overdue.initial-delay:PT1M}")
+    public void sweep() {
+        Instant now = Instant.now();
+        long marked = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            List<OverdueLoan> loans = transactionTemplate.execute(status -> sweepChunk(now));
+            if (loans == null || loans.isEmpty()) {
+                break;
+            }
+            marked += loans.size();
+            for (OverdueLoan loan : loans) {
+                notificationExecutor.execute(() -> notify(loan));
+            }
+            if (loans.size() < chunkSize) {
+                break;
+            }
+        }
+        if (marked > 0) {
+            logger.info("Marked {} loans overdue", marked);
+        }
+    }
+
+    private List<OverdueLoan> sweepChunk(Instant now) {
+        SweeperWatermark watermark = watermarkRepository.findForUpdate(WATERMARK)
+                .orElseGet(() -> watermarkRepository.save(new SweeperWatermark(WATERMARK)));
+
+        List<OverdueLoan> loans = bookCopyRepository.findOverdueAfter(
+                now, watermark.getLastDueDate(), watermark.getLastId(), Limit.of(chunkSize));
+        if (loans.isEmpty()) {
+            return loans;
+        }
+
+        bookCopyRepository.markOverdue(loans.stream().map(OverdueLoan::copyId).toList());
+
+        OverdueLoan last = loans.get(loans.size() - 1);
+        watermark.setLastDueDate(last.dueDate());
+        watermark.setLastId(last.copyId());
+        watermark.setUpdatedAt(now);
+        return loans;
+    }
+
+    private void notify(OverdueLoan loan) {
+        try {
+            notifier.notifyOverdue(loan);
+        } catch (Exception e) {
+            logger.warn("Failed to notify user {} about overdue copy {}: {}",
+                    loan.borrowerId(), loan.copyId(), e.getMessage());
+        }
+    }
+}
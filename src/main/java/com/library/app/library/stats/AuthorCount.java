@@ -0,0 +1,4 @@
+package com.library.app.library.stats;
+
+public record AuthorCount(String author, long titles) {
+}
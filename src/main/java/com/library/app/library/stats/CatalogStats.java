@@ -0,0 +1,19 @@
+package com.library.app.library.stats;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Catalog totals of a branch, or of all branches for {@code "*"}. Titles are available while
+ * at least one of their copies is on the shelf.
+ */
+public record CatalogStats(String branch,
+                           long titles,
+                           long availableTitles,
+                           long unavailableTitles,
+                           long copies,
+                           long availableCopies,
+                           long borrowedCopies,
+                           List<AuthorCount> topAuthors,
+                           Instant reconciledAt) {
+}
@@ -0,0 +1,363 @@
+package com.library.app.library.stats;
+
+import com.library.app.library.branch.BranchContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalog statistics served from in-memory counters instead of {@code count(*)} queries.
+ * <p>
+ * {@code BookService} reports the state of each title before and after a write; the difference
+ * is applied per branch once the transaction commits. Per-author title counts are kept in one
+ * map per branch. Writes that bypass {@code BookService} (imports, partition maintenance) are
+ * repaired by the periodic exact reconciliation, which recounts the {@code books} table in two
+ * grouped queries and swaps the counters in.
+ * <p>
+ * The recount reads one repeatable-read snapshot. To take it, it briefly holds back new commits
+ * reported here and waits for those already committing to be applied; the snapshot then holds
+ * exactly the writes of earlier epochs. Writes committing afterwards carry the new epoch, are
+ * logged while the recount runs and are replayed onto the exact counts when they are swapped in.
+ * No lock is held across a database commit or across the recount queries.
+ */
+@Service
+public class CatalogStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogStatsService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${library.stats.top-authors:10}")
+    private int maxTopAuthors;
+
+    private final TransactionTemplate snapshotTransaction;
+    private final ReentrantLock recounting = new ReentrantLock();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition();
+    private final Condition reopened = lock.newCondition();
+    private Map<String, Counters> branches = new HashMap<>();
+    private volatile Instant reconciledAt;
+    // Commit window state, guarded by lock
+    private boolean snapshotting;
+    private int committing;
+    private long epoch;
+    private List<Change> sinceSnapshot;
+
+    public CatalogStatsService(PlatformTransactionManager transactionManager) {
+        // Both recount queries read the same snapshot, on the primary and outside any caller's transaction
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Records a write; {@code before} is null for a new title and {@code after} for a deleted
+     * one. Applied after commit, or right away outside a transaction.
+     */
+    public void recordChange(TitleState before, TitleState after) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock.lock();
+            try {
+                apply(new Change(before, after), epoch);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitEpoch = -1;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitEpoch = enterCommit();
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(new Change(before, after), commitEpoch);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (commitEpoch >= 0) {
+                    leaveCommit();
+                }
+            }
+        });
+    }
+
+    // Waits only while a recount takes its snapshot; returns the epoch the commit belongs to
+    private long enterCommit() {
+        lock.lock();
+        try {
+            while (snapshotting) {
+                reopened.awaitUninterruptibly();
+            }
+            committing++;
+            return epoch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void leaveCommit() {
+        lock.lock();
+        try {
+            if (--committing == 0) {
+                drained.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(Change change, long commitEpoch) {
+        lock.lock();
+        try {
+            change.applyTo(branches);
+            // Not in the running recount's snapshot, so it has to be replayed onto its result
+            if (sinceSnapshot != null && commitEpoch == epoch) {
+                sinceSnapshot.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Totals of one branch, or of all of them for {@link BranchContext#ALL_BRANCHES}, with the
+     * {@code topAuthors} authors with the most titles.
+     */
+    public CatalogStats getStats(String branch, int topAuthors) {
+        lock.lock();
+        try {
+            Counters total = new Counters();
+            List<Counters> selected = new ArrayList<>();
+            for (Map.Entry<String, Counters> entry : branches.entrySet()) {
+                if (BranchContext.ALL_BRANCHES.equals(branch) || entry.getKey().equals(branch)) {
+                    selected.add(entry.getValue());
+                    total.addTotals(entry.getValue());
+                }
+            }
+            return new CatalogStats(branch, total.titles, total.availableTitles, total.titles - total.availableTitles,
+                    total.copies, total.availableCopies, total.copies - total.availableCopies,
+                    topAuthors(selected, topAuthors), reconciledAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Bounded min-heap over the author maps: O(authors log limit)
+    private static List<AuthorCount> topAuthors(List<Counters> selected, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Map<String, Integer> authors = selected.size() == 1 ? selected.get(0).authors : new HashMap<>();
+        if (selected.size() > 1) {
+            selected.forEach(counters -> counters.authors.forEach((author, titles) -> authors.merge(author, titles, Integer::sum)));
+        }
+        Comparator<AuthorCount> weakestFirst = Comparator.comparingLong(AuthorCount::titles)
+                .thenComparing(AuthorCount::author, Comparator.reverseOrder());
+        PriorityQueue<AuthorCount> top = new PriorityQueue<>(limit + 1, weakestFirst);
+        authors.forEach((author, titles) -> {
+            top.add(new AuthorCount(author, titles));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<AuthorCount> result = new ArrayList<>(top);
+        result.sort(weakestFirst.reversed());
+        return result;
+    }
+
+    public int getMaxTopAuthors() {
+        return maxTopAuthors;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Recounts the catalog and replaces the counters. Returns the number of branches whose
+     * counters had drifted.
+     */
+    @Scheduled(fixedDelayString = "${library.stats.reconcile-interval:PT15M}",
+            initialDelayString = "${library.stats.reconcile-interval:PT15M}")
+    public int reconcile() {
+        recounting.lock();
+        try {
+            return snapshotTransaction.execute(status -> recount());
+        } finally {
+            lock.lock();
+            try {
+                sinceSnapshot = null;
+            } finally {
+                lock.unlock();
+            }
+            recounting.unlock();
+        }
+    }
+
+    private int recount() {
+        takeSnapshot();
+        Map<String, Counters> exact = new HashMap<>();
+        jdbcTemplate.query("select branch, count(*), sum(total_copies), sum(available_copies), " +
+                "sum(case when available_copies > 0 then 1 else 0 end) from books group by branch", row -> {
+            Counters counters = exact.computeIfAbsent(row.getString(1), branch -> new Counters());
+            counters.titles = row.getLong(2);
+            counters.copies = row.getLong(3);
+            counters.availableCopies = row.getLong(4);
+            counters.availableTitles = row.getLong(5);
+        });
+        jdbcTemplate.query("select branch, author, count(*) from books where author is not null group by branch, author",
+                row -> {
+                    exact.computeIfAbsent(row.getString(1), branch -> new Counters())
+                            .authors.put(row.getString(2), row.getInt(3));
+                });
+
+        int drifted = 0;
+        boolean initial;
+        lock.lock();
+        try {
+            sinceSnapshot.forEach(change -> change.applyTo(exact));
+            for (String branch : union(branches, exact)) {
+                if (!Objects.equals(branches.get(branch), exact.get(branch))) {
+                    drifted++;
+                }
+            }
+            initial = reconciledAt == null;
+            branches = exact;
+            reconciledAt = Instant.now();
+        } finally {
+            lock.unlock();
+        }
+        if (drifted > 0 && !initial) {
+            logger.info("Reconciled catalog statistics; {} branches had drifted", drifted);
+        }
+        return drifted;
+    }
+
+    /**
+     * Starts the transaction's snapshot at a point where every commit of an earlier epoch has been
+     * applied and none of the new epoch has started.
+     */
+    private void takeSnapshot() {
+        // Holds a physical connection before commits are held back, so none of them can starve it
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                return null;
+            }
+        });
+        lock.lock();
+        try {
+            snapshotting = true;
+            while (committing > 0) {
+                drained.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            jdbcTemplate.queryForObject("select count(*) from books where id = -1", Long.class);
+            lock.lock();
+            try {
+                epoch++;
+                sinceSnapshot = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            lock.lock();
+            try {
+                snapshotting = false;
+                reopened.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static List<String> union(Map<String, Counters> first, Map<String, Counters> second) {
+        List<String> keys = new ArrayList<>(first.keySet());
+        second.keySet().stream().filter(key -> !first.containsKey(key)).forEach(keys::add);
+        return keys;
+    }
+
+    private record Change(TitleState before, TitleState after) {
+
+        private void applyTo(Map<String, Counters> branches) {
+            if (before != null) {
+                branches.computeIfAbsent(before.branch(), branch -> new Counters()).add(before, -1);
+            }
+            if (after != null) {
+                branches.computeIfAbsent(after.branch(), branch -> new Counters()).add(after, 1);
+            }
+        }
+    }
+
+    private static final class Counters {
+        private long titles;
+        private long availableTitles;
+        private long copies;
+        private long availableCopies;
+        private final Map<String, Integer> authors = new HashMap<>();
+
+        private void add(TitleState title, int sign) {
+            titles += sign;
+            availableTitles += title.isAvailable() ? sign : 0;
+            copies += (long) sign * title.totalCopies();
+            availableCopies += (long) sign * title.availableCopies();
+            if (title.author() != null) {
+                // Drops authors whose last title is gone, so the map only holds live authors
+                authors.merge(title.author(), sign, (current, delta) -> current + delta == 0 ? null : current + delta);
+            }
+        }
+
+        private void addTotals(Counters other) {
+            titles += other.titles;
+            availableTitles += other.availableTitles;
+            copies += other.copies;
+            availableCopies += other.availableCopies;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Counters other && titles == other.titles && availableTitles == other.availableTitles
+                    && copies == other.copies && availableCopies == other.availableCopies
+                    && authors.equals(other.authors);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(titles, availableTitles, copies, availableCopies, authors);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.library.app.library.stats;
+
+import com.library.app.library.model.Book;
+
+/**
+ * The parts of a title that catalog statistics count, captured at the time of a write.
+ */
+public record TitleState(String branch, String author, int totalCopies, int availableCopies) {
+
+    public static TitleState of(Book book) {
+        return new TitleState(book.getBranch(), book.getAuthor(), book.getTotalCopies(), book.getAvailableCopies());
+    }
+
+    // The same title before copies were added (positive) or lent (negative) by a write
+    public TitleState minus(int totalCopies, int availableCopies) {
+        return new TitleState(branch, author, this.totalCopies - totalCopies, this.availableCopies - availableCopies);
+    }
+
+    public boolean isAvailable() {
+        return availableCopies > 0;
+    }
+}
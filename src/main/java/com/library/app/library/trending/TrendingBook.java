@@ -0,0 +1,8 @@
+package com.library.app.library.trending;
+
+/**
+ * A title and its time-decayed activity score: weighted borrows and views, recent windows
+ * counting more.
+ */
+public record TrendingBook(long bookId, double score) {
+}
@@ -0,0 +1,294 @@
+package com.library.app.library.trending;
+
+import com.library.app.library.event.CirculationEvent;
+import com.library.app.library.event.CirculationEventListener;
+import com.library.app.library.event.CirculationEventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * "Trending now" titles.
+ * <p>
+ * Views and committed borrows are counted per title into a {@link WindowedCounter}, lock-free.
+ * A title's score is the sum of its windows, each decayed by its age with the configured half
+ * life. The top-k titles are kept in a min-heap that every recorded event updates in place, so
+ * reading the list costs O(k) whatever the size of the catalog. Titles scoring below the
+ * smallest entry of a full heap do not take the lock at all.
+ * <p>
+ * All heap scores are computed against the same reference window. When a window closes the
+ * heap is rebuilt once against the new one, and titles whose windows have all expired are
+ * dropped. A counter being dropped is marked retiring and checked once more; a view recorded
+ * into it meanwhile either keeps it alive or is recorded again into a fresh counter.
+ */
+@Component
+public class TrendingService implements CirculationEventListener {
+
+    private final long windowMillis;
+    private final int topK;
+    private final long viewWeight;
+    private final long borrowWeight;
+    private final double[] decay;
+    private final ConcurrentHashMap<Long, WindowedCounter> counters = new ConcurrentHashMap<>();
+
+    // Min-heap of the top-k by score; members are also indexed by book id for in-place updates
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Entry[] heap;
+    private final Map<Long, Entry> ranked = new HashMap<>();
+    private int size;
+    private volatile long referenceWindow;
+    // Score a title must beat to enter the heap; 0 until the heap is full
+    private volatile double threshold;
+
+    public TrendingService(@Value("${library.trending.window:PT5M}") Duration window,
+                           @Value("${library.trending.windows:12}") int windows,
+                           @Value("${library.trending.half-life:PT15M}") Duration halfLife,
+                           @Value("${library.trending.top-k:20}") int topK,
+                           @Value("${library.trending.view-weight:1}") long viewWeight,
+                           @Value("${library.trending.borrow-weight:5}") long borrowWeight) {
+        this.windowMillis = window.toMillis();
+        this.topK = topK;
+        this.viewWeight = viewWeight;
+        this.borrowWeight = borrowWeight;
+        this.heap = new Entry[topK];
+        this.decay = new double[windows];
+        double halfLifeWindows = (double) halfLife.toMillis() / windowMillis;
+        for (int age = 0; age < windows; age++) {
+            decay[age] = Math.pow(0.5, age / halfLifeWindows);
+        }
+        this.referenceWindow = currentWindow();
+    }
+
+    @Override
+    public String name() {
+        return "trending";
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void recordView(long bookId) {
+        record(bookId, viewWeight);
+    }
+
+    @Override
+    public void onEvent(CirculationEvent event, long sequence, boolean endOfBatch) {
+        if (event.getType() == CirculationEventType.BOOK_BORROWED) {
+            record(event.getBookId(), borrowWeight);
+        } else if (event.getType() == CirculationEventType.BOOK_DELETED) {
+            remove(event.getBookId());
+        }
+    }
+
+    void record(long bookId, long weight) {
+        WindowedCounter counter = count(bookId, weight);
+        if (!counter.ranked && counter.score(referenceWindow, decay) <= threshold) {
+            return;
+        }
+        lock.lock();
+        try {
+            offer(bookId, counter.score(referenceWindow, decay));
+            counter.ranked = ranked.containsKey(bookId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Adds to the title's live counter, retrying when closeWindow dropped the counter meanwhile
+    private WindowedCounter count(long bookId, long weight) {
+        while (true) {
+            WindowedCounter counter = counters.computeIfAbsent(bookId, id -> new WindowedCounter(decay.length));
+            counter.add(currentWindow(), weight);
+            int state;
+            while ((state = counter.state) == WindowedCounter.RETIRING) {
+                Thread.onSpinWait();
+            }
+            if (state == WindowedCounter.ACTIVE) {
+                return counter;
+            }
+        }
+    }
+
+    // Up to limit titles, highest score first
+    public List<TrendingBook> trending(int limit) {
+        Entry[] entries;
+        lock.lock();
+        try {
+            entries = new Entry[size];
+            for (int i = 0; i < size; i++) {
+                entries[i] = heap[i].copy();
+            }
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(entries, Comparator.comparingDouble((Entry entry) -> entry.score).reversed()
+                .thenComparingLong(entry -> entry.bookId));
+        return Arrays.stream(entries, 0, Math.min(limit, entries.length))
+                .map(entry -> new TrendingBook(entry.bookId, entry.score))
+                .toList();
+    }
+
+    /**
+     * Moves the scores to the window that just started and rebuilds the heap from them.
+     */
+    @Scheduled(fixedRateString = "${library.trending.window:PT5M}", initialDelayString = "${library.trending.window:PT5M}")
+    public void closeWindow() {
+        long window = currentWindow();
+        lock.lock();
+        try {
+            referenceWindow = window;
+            for (int i = 0; i < size; i++) {
+                heap[i] = null;
+            }
+            size = 0;
+            ranked.clear();
+            threshold = 0;
+            counters.forEach((bookId, counter) -> {
+                double score = counter.score(window, decay);
+                if (score == 0) {
+                    score = retire(bookId, counter, window);
+                }
+                offer(bookId, score);
+            });
+            counters.forEach((bookId, counter) -> counter.ranked = ranked.containsKey(bookId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops an idle counter unless a view landed in it after the first check. Adds that read
+     * {@code ACTIVE} before the counter was marked are seen by the second check; adds that find
+     * it retiring wait for the outcome, and record again elsewhere if it was removed.
+     */
+    private double retire(long bookId, WindowedCounter counter, long window) {
+        counter.state = WindowedCounter.RETIRING;
+        double score = counter.score(window, decay);
+        if (score == 0) {
+            counters.remove(bookId, counter);
+            counter.state = WindowedCounter.REMOVED;
+        } else {
+            counter.state = WindowedCounter.ACTIVE;
+        }
+        return score;
+    }
+
+    private void remove(long bookId) {
+        counters.remove(bookId);
+        lock.lock();
+        try {
+            Entry entry = ranked.remove(bookId);
+            if (entry != null) {
+                Entry last = heap[--size];
+                heap[size] = null;
+                if (entry != last) {
+                    heap[entry.index] = last;
+                    last.index = entry.index;
+                    siftDown(siftUp(last.index));
+                }
+                threshold = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Scores only grow between window changes, so an entry in the heap only ever moves down
+    private void offer(long bookId, double score) {
+        if (score <= 0) {
+            return;
+        }
+        Entry entry = ranked.get(bookId);
+        if (entry != null) {
+            entry.score = score;
+            siftDown(entry.index);
+        } else if (size < heap.length) {
+            entry = new Entry(bookId, score);
+            entry.index = size;
+            heap[size++] = entry;
+            ranked.put(bookId, entry);
+            siftUp(entry.index);
+        } else if (score > heap[0].score) {
+            ranked.remove(heap[0].bookId);
+            WindowedCounter evicted = counters.get(heap[0].bookId);
+            if (evicted != null) {
+                evicted.ranked = false;
+            }
+            entry = new Entry(bookId, score);
+            entry.index = 0;
+            heap[0] = entry;
+            ranked.put(bookId, entry);
+            siftDown(0);
+        }
+        if (size == heap.length) {
+            threshold = heap[0].score;
+        }
+    }
+
+    private int siftUp(int index) {
+        Entry entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].score <= entry.score) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(entry, index);
+        return index;
+    }
+
+    private void siftDown(int index) {
+        Entry entry = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].score < heap[child].score) {
+                child++;
+            }
+            if (entry.score <= heap[child].score) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(entry, index);
+    }
+
+    private void place(Entry entry, int index) {
+        heap[index] = entry;
+        entry.index = index;
+    }
+
+    private long currentWindow() {
+        return System.currentTimeMillis() / windowMillis;
+    }
+
+    private static final class Entry {
+        private final long bookId;
+        private double score;
+        private int index;
+
+        private Entry(long bookId, double score) {
+            this.bookId = bookId;
+            this.score = score;
+        }
+
+        private Entry copy() {
+            return new Entry(bookId, score);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.library.app.library.trending;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free event counter over a ring of fixed time windows.
+ * <p>
+ * Each slot holds the count of one window. A writer that finds a slot still holding an older
+ * window swaps in a fresh one with a CAS; increments racing with the swap land in the old
+ * window, which was about to be discarded anyway. Counts are {@link LongAdder}s, so concurrent
+ * writers to a popular title do not contend on one cache line.
+ */
+final class WindowedCounter {
+
+    private final AtomicReferenceArray<Window> slots;
+
+    // Set by TrendingService under its lock while the title is in the top-k
+    volatile boolean ranked;
+
+    // Life cycle of an idle counter being dropped by TrendingService.closeWindow
+    static final int ACTIVE = 0;
+    static final int RETIRING = 1;
+    static final int REMOVED = 2;
+    volatile int state = ACTIVE;
+
+    WindowedCounter(int windows) {
+        this.slots = new AtomicReferenceArray<>(windows);
+    }
+
+    void add(long window, long amount) {
+        int slot = (int) (window % slots.length());
+        Window current = slots.get(slot);
+        while (current == null || current.number < window) {
+            Window fresh = new Window(window);
+            if (slots.compareAndSet(slot, current, fresh)) {
+                current = fresh;
+                break;
+            }
+            current = slots.get(slot);
+        }
+        // A slot already holding a newer window means this event is too late to count
+        if (current.number == window) {
+            current.count.add(amount);
+        }
+    }
+
+    /**
+     * Sum of the windows still in the ring as of {@code referenceWindow}, each weighted by
+     * {@code weights[age]}; windows newer than the reference count at full weight.
+     */
+    double score(long referenceWindow, double[] weights) {
+        double score = 0;
+        for (int slot = 0; slot < slots.length(); slot++) {
+            Window window = slots.get(slot);
+            if (window == null) {
+                continue;
+            }
+            long age = referenceWindow - window.number;
+            if (age < weights.length) {
+                score += window.count.sum() * (age <= 0 ? 1.0 : weights[(int) age]);
+            }
+        }
+        return score;
+    }
+
+    private static final class Window {
+        private final long number;
+        private final LongAdder count = new LongAdder();
+
+        private Window(long number) {
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.library.app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the packaged application with the prod profile against an in-memory database, once
+ * per startup mode, and reports startup time, time until the readiness probe is up and time
+ * until the first authenticated request is served. Run by failsafe in the fast-startup profile
+ * ({@code mvn -Pfast-startup verify}), after the jar is extracted and the CDS archive trained.
+ * The CDS modes run with {@code -Xshare:on}, so an unusable archive fails the test.
+ */
+@EnabledIfSystemProperty(named = "startup.application.dir", matches = ".+")
+public class StartupTimeIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeIT.class);
+
+    private static final Pattern STARTED = Pattern.compile("Started AppApplication in ([0-9.]+) seconds");
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Path applicationDir = Path.of(System.getProperty("startup.application.dir"));
+    private final String jar = System.getProperty("startup.jar");
+    private final int runs = Integer.getInteger("startup.runs", 3);
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private record Mode(String name, List<String> jvmArgs) {
+    }
+
+    private record Timing(double startedSeconds, long readyMillis, long firstRequestMillis) {
+    }
+
+    @Test
+    void testStartupModes() throws Exception {
+        List<Mode> modes = List.of(
+                new Mode("default", List.of()),
+                new Mode("cds", List.of("-Xshare:on", "-XX:SharedArchiveFile=application.jsa")),
+                new Mode("cds+aot", List.of("-Xshare:on", "-XX:SharedArchiveFile=application.jsa",
+                        "-Dspring.aot.enabled=true")));
+
+        StringBuilder report = new StringBuilder(String.format("%n%-8s %12s %12s %16s%n",
+                "mode", "started (s)", "ready (ms)", "1st request (ms)"));
+        for (Mode mode : modes) {
+            List<Timing> timings = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                timings.add(start(mode, run));
+            }
+            report.append(String.format("%-8s %12.2f %12d %16d%n", mode.name(),
+                    median(timings.stream().mapToDouble(Timing::startedSeconds).toArray()),
+                    (long) median(timings.stream().mapToDouble(Timing::readyMillis).toArray()),
+                    (long) median(timings.stream().mapToDouble(Timing::firstRequestMillis).toArray())));
+        }
+        logger.info("{}", report);
+    }
+
+    private Timing start(Mode mode, int run) throws Exception {
+        int port = freePort();
+        Path log = applicationDir.resolve("startup-" + mode.name().replace('+', '-') + "-" + run + ".log");
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmArgs());
+        command.addAll(List.of("-cp", jar + java.io.File.pathSeparator + jarOf(org.h2.Driver.class)
+                        + java.io.File.pathSeparator + jarOf(io.r2dbc.h2.H2ConnectionFactory.class),
+                AppApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.profiles.active=prod",
+                "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--library.reactive.url=r2dbc:h2:mem:///startup",
+                "--library.reactive.username=sa",
+                "--library.reactive.password="));
+
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(applicationDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            String base = "http://localhost:" + port;
+            awaitReady(base, process, log);
+            long ready = elapsedMillis(launched);
+
+            // Readiness waits for AdminInitializer, which creates the admin account on an empty database
+            HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin123\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(login.statusCode()).isEqualTo(200);
+            HttpResponse<Void> books = client.send(HttpRequest.newBuilder(URI.create(base + "/api/books"))
+                    .header("Authorization", "Bearer " + login.body())
+                    .GET().build(), HttpResponse.BodyHandlers.discarding());
+            assertThat(books.statusCode()).isIn(200, 204);
+            long firstRequest = elapsedMillis(launched);
+
+            Matcher started = STARTED.matcher(Files.readString(log));
+            assertThat(started.find()).as("startup line in " + log).isTrue();
+            return new Timing(Double.parseDouble(started.group(1)), ready, firstRequest);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private void awaitReady(String base, Process process, Path log) throws Exception {
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(base + "/actuator/health/readiness")).GET().build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new AssertionError("Application exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Application not healthy after " + START_TIMEOUT + ", see " + log);
+    }
+
+    private static String jarOf(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+}
@@ -0,0 +1,70 @@
+package com.library.app.auth.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuditSegmentStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void testRollsAndRetainsNewestSegments(@TempDir Path directory) throws Exception {
+        AuditRecord record = new AuditRecord();
+        try (AuditSegmentStore store = new AuditSegmentStore(directory, 1024, 3, false, objectMapper)) {
+            for (int i = 0; i < 100; i++) {
+                record.set(1_000L + i, AuditEventType.LOGIN_SUCCESS, "user" + i, i, "user" + i, null, "127.0.0.1");
+                store.onEvent(record, i, i % 10 == 9);
+            }
+
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files.count()).isEqualTo(3);
+            }
+
+            List<AuditEntry> newest = store.query(entry -> true, 5);
+            assertThat(newest).extracting(AuditEntry::actor)
+                    .containsExactly("user99", "user98", "user97", "user96", "user95");
+
+            List<AuditEntry> matching = store.query(entry -> entry.actor().equals("user90"), 10);
+            assertThat(matching).singleElement().extracting(AuditEntry::subjectId).isEqualTo(90L);
+        }
+
+        // A restarted store starts a fresh segment instead of appending to a possibly torn one
+        try (AuditSegmentStore store = new AuditSegmentStore(directory, 1024, 3, false, objectMapper)) {
+            record.set(5_000L, AuditEventType.LOGIN_FAILURE, "late", AuditRecord.NO_SUBJECT, "late", null, null);
+            store.onEvent(record, 0, true);
+            assertThat(store.query(entry -> true, 2)).extracting(AuditEntry::actor).containsExactly("late", "user99");
+        }
+    }
+
+    @Test
+    void testQueryStopsAtTheLastCompleteLine(@TempDir Path directory) throws Exception {
+        AuditRecord record = new AuditRecord();
+        record.set(1_000L, AuditEventType.LOGIN_SUCCESS, "first", 1, "first", null, null);
+        byte[] first = objectMapper.writeValueAsBytes(record.toEntry());
+        record.set(2_000L, AuditEventType.LOGIN_SUCCESS, "second", 2, "second", null, null);
+        byte[] second = objectMapper.writeValueAsBytes(record.toEntry());
+
+        // Two lines, half of a third that was still being written, then the zero-filled tail
+        byte[] segment = new byte[4096];
+        System.arraycopy(first, 0, segment, 0, first.length);
+        segment[first.length] = '\n';
+        System.arraycopy(second, 0, segment, first.length + 1, second.length);
+        segment[first.length + second.length + 1] = '\n';
+        System.arraycopy(first, 0, segment, first.length + second.length + 2, first.length / 2);
+        Files.write(directory.resolve(String.format("audit-%020d.log", 1)), segment);
+
+        try (AuditSegmentStore store = new AuditSegmentStore(directory, 4096, 3, false, objectMapper)) {
+            assertThat(store.query(entry -> true, 10)).extracting(AuditEntry::actor).containsExactly("second", "first");
+            assertThat(store.query(entry -> true, 1)).extracting(AuditEntry::actor).containsExactly("second");
+        }
+    }
+}
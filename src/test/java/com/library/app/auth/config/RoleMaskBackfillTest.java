@@ -0,0 +1,104 @@
+package com.library.app.auth.config;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.UserPrincipal;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.config.QueryCountingStatementInspector;
+import com.library.app.library.model.SweeperWatermark;
+import com.library.app.library.repository.SweeperWatermarkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RoleMaskBackfillTest {
+
+    @Autowired
+    private RoleMaskBackfill backfill;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private SweeperWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        libraryUserRepository.deleteAll();
+        watermarkRepository.deleteAll();
+        jdbcTemplate.execute("create table user_roles (user_id bigint not null, role smallint)");
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("drop table user_roles");
+    }
+
+    @Test
+    void testCopiesLegacyRolesIntoMask() {
+        long admin = insertLegacyUser(1, "legacyadmin", LibraryUserRoles.ROLE_USER, LibraryUserRoles.ROLE_ADMIN);
+        long reader = insertLegacyUser(2, "legacyreader", LibraryUserRoles.ROLE_USER);
+
+        backfill.run();
+
+        assertThat(libraryUserRepository.findById(admin).orElseThrow().getRoles())
+                .containsExactlyInAnyOrder(LibraryUserRoles.ROLE_USER, LibraryUserRoles.ROLE_ADMIN);
+        assertThat(libraryUserRepository.findById(reader).orElseThrow().getRoles())
+                .containsExactly(LibraryUserRoles.ROLE_USER);
+
+        assertThat(watermarkRepository.findById(RoleMaskBackfill.WATERMARK))
+                .map(SweeperWatermark::getLastId).hasValue(RoleMaskBackfill.DONE);
+
+        // A second run leaves migrated users alone and later boots skip the scan altogether
+        jdbcTemplate.update("update users set role_mask = ? where id = ?", LibraryUserRoles.ROLE_USER.bit(), admin);
+        long late = insertLegacyUser(3, "latereader", LibraryUserRoles.ROLE_USER);
+        backfill.run();
+        assertThat(libraryUserRepository.findById(admin).orElseThrow().getRoles())
+                .containsExactly(LibraryUserRoles.ROLE_USER);
+        assertThat(libraryUserRepository.findById(late).orElseThrow().getRoles()).isEmpty();
+    }
+
+    @Test
+    void testUserLoadIsSingleStatementWithSharedAuthorities() {
+        LibraryUser user = new LibraryUser();
+        user.setUsername("john");
+        user.setPassword("unused");
+        user.setRoles(EnumSet.of(LibraryUserRoles.ROLE_ADMIN, LibraryUserRoles.ROLE_USER));
+        libraryUserRepository.save(user);
+
+        QueryCountingStatementInspector.start();
+        LibraryUser loaded = libraryUserRepository.findByUsername("john").orElseThrow();
+        assertThat(QueryCountingStatementInspector.stop()).isEqualTo(1);
+
+        Set<LibraryUserRoles> roles = loaded.getRoles();
+        assertThat(roles).containsExactlyInAnyOrder(LibraryUserRoles.ROLE_ADMIN, LibraryUserRoles.ROLE_USER);
+        assertThat(new UserPrincipal(loaded).getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(new UserPrincipal(loaded).getAuthorities()).isSameAs(new UserPrincipal(loaded).getAuthorities());
+    }
+
+    private long insertLegacyUser(long id, String username, LibraryUserRoles... roles) {
+        jdbcTemplate.update("insert into users (id, username, password, expired, enabled, role_mask) " +
+                "values (?, ?, 'unused', false, true, 0)", id, username);
+        for (LibraryUserRoles role : roles) {
+            jdbcTemplate.update("insert into user_roles (user_id, role) values (?, ?)", id, role.ordinal());
+        }
+        return id;
+    }
+}
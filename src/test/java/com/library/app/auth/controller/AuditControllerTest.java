@@ -0,0 +1,132 @@
+package com.library.app.auth.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.LoginRequest;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AuditControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        libraryUserRepository.deleteAll();
+        adminToken = registerAndLogin("auditor", LibraryUserRoles.ROLE_ADMIN, LibraryUserRoles.ROLE_USER);
+    }
+
+    @Test
+    void testLoginAttemptsAreAudited() throws Exception {
+        String userToken = registerAndLogin("audited", LibraryUserRoles.ROLE_USER);
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("audited", "wrong-password"))))
+                .andExpect(status().is4xxClientError());
+
+        // Events are written asynchronously
+        JsonNode failures = awaitEvents("LOGIN_FAILURE", "audited");
+        assertThat(failures.get(0).get("actor").asText()).isEqualTo("audited");
+        assertThat(failures.get(0).has("timestamp")).isTrue();
+
+        JsonNode registrations = awaitEvents("USER_REGISTERED", "audited");
+        assertThat(registrations.get(0).get("detail").asText()).contains("ROLE_USER");
+
+        mockMvc.perform(get("/api/audit").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/audit").param("limit", "0").header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testOnlyActualDeletesAreAudited() throws Exception {
+        registerAndLogin("leaving", LibraryUserRoles.ROLE_USER);
+        long leaving = libraryUserRepository.findByUsername("leaving").orElseThrow().getId();
+
+        assertThat(libraryUserService.deleteUser(leaving + 1000)).isFalse();
+        assertThat(libraryUserService.deleteUser(leaving)).isTrue();
+
+        // Written in order, so the missing id would have been written before the actual delete
+        long deadline = System.currentTimeMillis() + 5_000;
+        JsonNode deletes;
+        do {
+            Thread.sleep(20);
+            deletes = objectMapper.readTree(mockMvc.perform(get("/api/audit")
+                            .param("type", "ACCOUNT_DELETED")
+                            .header("Authorization", "Bearer " + adminToken))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+        } while (!deletes.findValuesAsText("subjectId").contains(String.valueOf(leaving))
+                && System.currentTimeMillis() < deadline);
+
+        assertThat(deletes.findValuesAsText("subjectId"))
+                .contains(String.valueOf(leaving))
+                .doesNotContain(String.valueOf(leaving + 1000));
+    }
+
+    private JsonNode awaitEvents(String type, String subject) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (true) {
+            String body = mockMvc.perform(get("/api/audit")
+                            .param("type", type)
+                            .param("subject", subject)
+                            .header("Authorization", "Bearer " + adminToken))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode events = objectMapper.readTree(body);
+            if (!events.isEmpty() || System.currentTimeMillis() > deadline) {
+                assertThat(events).isNotEmpty();
+                return events;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private String registerAndLogin(String username, LibraryUserRoles... roles) throws Exception {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("secret123");
+        request.setRoles(Set.of(roles));
+        libraryUserService.register(request);
+
+        return mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest(username, "secret123"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
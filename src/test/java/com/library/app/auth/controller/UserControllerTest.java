@@ -7,27 +7,34 @@ import com.library.app.auth.model.LoginRequest;
 import com.library.app.auth.model.RegisterRequest;
 import com.library.app.auth.repository.LibraryUserRepository;
 import com.library.app.auth.service.LibraryUserService;
+import com.library.app.support.sql.SqlRecorderConfiguration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.library.app.support.sql.SqlBudget.sqlBudget;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@Import(SqlRecorderConfiguration.class)
 public class UserControllerTest {
 
     @Autowired
@@ -91,7 +98,8 @@ public class UserControllerTest {
         mockMvc.perform(get("/users")
                         .header("Authorization", "Bearer " + adminToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content").isArray());
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(sqlBudget().maxSelects(2).maxUpdates(0).noFullScans());
     }
 
     @Test
@@ -107,7 +115,8 @@ public class UserControllerTest {
                         .param("username", "john")
                         .header("Authorization", "Bearer " + adminToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.username").value("john"));
+                .andExpect(jsonPath("$.username").value("john"))
+                .andExpect(sqlBudget().maxSelects(2).maxUpdates(0).noFullScans());
     }
 
     @Test
@@ -140,7 +149,8 @@ public class UserControllerTest {
         // disable
         mockMvc.perform(patch("/users/" + userId + "/disable")
                         .header("Authorization", "Bearer " + adminToken))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(sqlBudget().maxSelects(3).maxUpdates(1).noFullScans());
 
         // enable
         mockMvc.perform(patch("/users/" + userId + "/enable")
@@ -180,7 +190,137 @@ public class UserControllerTest {
                         .param("name", "john")
                         .header("Authorization", "Bearer " + adminToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].username").exists());
+                .andExpect(jsonPath("$.content[0].username").exists())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                // No count query; substring search cannot use the username index on H2
+                .andExpect(sqlBudget().maxSelects(2).maxUpdates(0));
+    }
+
+    @Test
+    void testSearchUsers_KeysetPagingAndFilters() throws Exception {
+        for (String name : new String[]{"jane", "jim", "Jo_anne"}) {
+            RegisterRequest request = new RegisterRequest();
+            request.setUsername(name);
+            request.setPassword("secret123");
+            request.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+            libraryUserService.register(request);
+        }
+        libraryUserService.disableUser(libraryUserRepository.findByUsername("jim").orElseThrow().getId());
+
+        // Usernames are unique regardless of case
+        RegisterRequest duplicate = new RegisterRequest();
+        duplicate.setUsername("JOHN");
+        duplicate.setPassword("secret123");
+        assertThatThrownBy(() -> libraryUserService.register(duplicate)).isInstanceOf(IllegalArgumentException.class);
+
+        mockMvc.perform(get("/users/search")
+                        .param("name", "j")
+                        .param("prefix", "true")
+                        .param("size", "2")
+                        .param("count", "true")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("Jo_anne"))
+                .andExpect(jsonPath("$.content[1].username").value("jane"))
+                .andExpect(jsonPath("$.next").value("jane"))
+                .andExpect(jsonPath("$.totalElements").value(4));
+
+        mockMvc.perform(get("/users/search")
+                        .param("name", "j")
+                        .param("prefix", "true")
+                        .param("after", "jane")
+                        .param("size", "2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("jim"))
+                .andExpect(jsonPath("$.content[1].username").value("john"))
+                .andExpect(jsonPath("$.next").doesNotExist())
+                .andExpect(sqlBudget().maxSelects(2));
+
+        // LIKE wildcards in the search term are matched literally
+        mockMvc.perform(get("/users/search")
+                        .param("name", "o_a")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+
+        mockMvc.perform(get("/users/search")
+                        .param("enabled", "true")
+                        .param("role", "ROLE_ADMIN")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].username").value("admin"));
+
+        mockMvc.perform(get("/users/search")
+                        .param("enabled", "false")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("jim"));
+
+        mockMvc.perform(get("/users/search")
+                        .param("size", "1000")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBulkAccountChanges_AsAdmin() throws Exception {
+        // Warms the cached principal of john
+        mockMvc.perform(get("/users/user/current").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/users/bulk/disable")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("ids", List.of(userId))))
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.disabled").value(1))
+                .andExpect(sqlBudget().maxSelects(2).maxUpdates(1));
+
+        // Already disabled, and the principal was evicted
+        mockMvc.perform(patch("/users/bulk/disable")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("ids", List.of(userId))))
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(jsonPath("$.disabled").value(0));
+        mockMvc.perform(get("/users/user/current").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().is4xxClientError());
+
+        mockMvc.perform(patch("/users/bulk/enable")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("enabled", false)))
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(1));
+        mockMvc.perform(get("/users/user/current").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/users/bulk/expire")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("ids", List.of(userId))))
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(patch("/users/bulk/expire")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("name", "jo", "prefix", true,
+                                "createdBefore", Instant.now().plusSeconds(60).toString())))
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expired").value(1));
+        assertThat(libraryUserRepository.findById(userId).orElseThrow().isExpired()).isTrue();
+
+        // Either ids or a filter, never both or neither
+        mockMvc.perform(patch("/users/bulk/expire")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("ids", List.of(userId), "role", "ROLE_USER")))
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/users/bulk/expire")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -0,0 +1,114 @@
+package com.library.app.auth.service;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class InactiveAccountExpirerTest {
+
+    @Autowired
+    private InactiveAccountExpirer expirer;
+
+    @Autowired
+    private UserActivityTracker activityTracker;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        activityTracker.flush();
+        libraryUserRepository.deleteAll();
+    }
+
+    @Test
+    void testActivityIsCoalescedAndFlushedInBatches() {
+        LibraryUser john = register("john", LibraryUserRoles.ROLE_USER);
+        LibraryUser jane = register("jane", LibraryUserRoles.ROLE_USER);
+
+        for (int i = 0; i < 100; i++) {
+            activityTracker.record(john.getId());
+        }
+        activityTracker.record(jane.getId());
+        assertThat(activityTracker.pendingCount()).isEqualTo(2);
+
+        activityTracker.flush();
+
+        assertThat(activityTracker.pendingCount()).isZero();
+        assertThat(lastActiveAt(john)).isCloseTo(Instant.now(), within(1, ChronoUnit.MINUTES));
+        assertThat(lastActiveAt(jane)).isCloseTo(Instant.now(), within(1, ChronoUnit.MINUTES));
+
+        // A late flush of an older timestamp never moves the column backwards
+        Instant future = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+        setLastActiveAt(john, future);
+        activityTracker.record(john.getId());
+        activityTracker.flush();
+        assertThat(lastActiveAt(john)).isEqualTo(future);
+    }
+
+    @Test
+    void testExpiresAccountsInactiveBeyondThreshold() {
+        LibraryUser dormant = register("dormant", LibraryUserRoles.ROLE_USER);
+        LibraryUser active = register("active", LibraryUserRoles.ROLE_USER);
+        LibraryUser admin = register("admin", LibraryUserRoles.ROLE_ADMIN);
+        LibraryUser legacy = register("legacy", LibraryUserRoles.ROLE_USER);
+
+        Instant longAgo = Instant.now().minus(400, ChronoUnit.DAYS);
+        setLastActiveAt(dormant, longAgo);
+        setLastActiveAt(admin, longAgo);
+        jdbcTemplate.update("update users set created_at = null, last_active_at = null where id = ?", legacy.getId());
+        activityTracker.record(active.getId());
+        activityTracker.flush();
+
+        expirer.expireInactive();
+
+        assertThat(libraryUserRepository.findById(dormant.getId()).orElseThrow().isExpired()).isTrue();
+        assertThat(libraryUserRepository.findById(active.getId()).orElseThrow().isExpired()).isFalse();
+        assertThat(libraryUserRepository.findById(admin.getId()).orElseThrow().isExpired()).isFalse();
+        // Accounts without any recorded activity start their clock instead of expiring
+        LibraryUser legacyAfter = libraryUserRepository.findById(legacy.getId()).orElseThrow();
+        assertThat(legacyAfter.isExpired()).isFalse();
+        assertThat(legacyAfter.getLastActiveAt()).isCloseTo(Instant.now(), within(1, ChronoUnit.MINUTES));
+    }
+
+    private LibraryUser register(String username, LibraryUserRoles role) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("secret123");
+        request.setRoles(Set.of(role));
+        libraryUserService.register(request);
+        return libraryUserRepository.findByUsername(username).orElseThrow();
+    }
+
+    private void setLastActiveAt(LibraryUser user, Instant lastActiveAt) {
+        jdbcTemplate.update("update users set last_active_at = ? where id = ?", Timestamp.from(lastActiveAt), user.getId());
+    }
+
+    private Instant lastActiveAt(LibraryUser user) {
+        return jdbcTemplate.queryForObject("select last_active_at from users where id = ?", Timestamp.class, user.getId())
+                .toInstant();
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.app.auth.service;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.UserPrincipal;
+import com.library.app.common.invalidation.CachedEntity;
+import com.library.app.common.invalidation.Invalidation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserPrincipalCacheTest {
+
+    private final UserPrincipalCache cache = new UserPrincipalCache(Duration.ofMinutes(5), 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testLoadOvertakenByInvalidationIsNotCached() {
+        // The row is read at version 3, then version 4 is committed before the load finishes
+        cache.get("alice", username -> {
+            cache.onInvalidation(List.of(new Invalidation(CachedEntity.USER, 1, 4)));
+            return load(1, 3);
+        });
+        cache.get("alice", username -> load(1, 4));
+        cache.get("alice", username -> load(1, 4));
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testUnknownVersionOnlyRejectsLoadsRunningAtTheTime() {
+        cache.get("bob", username -> {
+            cache.onInvalidation(List.of(new Invalidation(CachedEntity.USER, 2, Invalidation.UNKNOWN_VERSION)));
+            return load(2, 7);
+        });
+        assertThat(cache.size()).isZero();
+
+        // Loads started afterwards read the committed row
+        cache.get("bob", username -> load(2, 7));
+        cache.get("bob", username -> load(2, 7));
+        assertThat(loads.get()).isEqualTo(2);
+
+        cache.get("carol", username -> {
+            cache.onReset();
+            return load(3, 1);
+        });
+        assertThat(cache.size()).isZero();
+    }
+
+    private UserPrincipal load(long id, long version) {
+        loads.incrementAndGet();
+        LibraryUser user = new LibraryUser();
+        user.setId(id);
+        user.setVersion(version);
+        return new UserPrincipal(user);
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.app.common.collect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongIntHashMapTest {
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // Small key range so that removals hit long probe chains
+            long key = 1 + random.nextInt(2_000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.addTo(key, 1);
+                    expected.merge(key, 1, Integer::sum);
+                }
+                case 1 -> assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+                default -> assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,141 @@
+package com.library.app.common.invalidation;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.model.UserPrincipal;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.auth.service.UserPrincipalCache;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import com.library.app.library.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class InvalidationPublisherTest {
+
+    @TestConfiguration
+    static class RecordingConfiguration {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements InvalidationListener {
+        final List<List<Invalidation>> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onInvalidation(List<Invalidation> invalidations) {
+            received.add(invalidations);
+        }
+    }
+
+    @Autowired
+    private RecordingListener listener;
+
+    @Autowired
+    private InvalidationPublisher invalidations;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+        principalCache.evictAll();
+        listener.received.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void testInvalidationsAreDeliveredOnlyAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            invalidations.bookChanged(1, 3L);
+            status.setRollbackOnly();
+        });
+        assertThat(listener.received).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            invalidations.bookChanged(1, 3L);
+            invalidations.bookChanged(1, 5L);
+            invalidations.bookChanged(1, 4L);
+            invalidations.userChanged(1, 2L);
+            invalidations.usersChanged(List.of(1L));
+            assertThat(listener.received).isEmpty();
+        });
+
+        // One message per row and transaction; a bulk change makes the user version unknown
+        assertThat(listener.received).containsExactly(List.of(
+                new Invalidation(CachedEntity.BOOK, 1, 5),
+                new Invalidation(CachedEntity.USER, 1, Invalidation.UNKNOWN_VERSION)));
+    }
+
+    @Test
+    void testAccountAndCirculationChangesEvictCachedCopies() {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername("cached");
+        request.setPassword("secret123");
+        request.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+        libraryUserService.register(request);
+        LibraryUser user = libraryUserRepository.findByUsername("cached").orElseThrow();
+
+        principalCache.get("cached", username -> new UserPrincipal(user));
+        assertThat(principalCache.size()).isEqualTo(1);
+
+        listener.received.clear();
+        LibraryUser disabled = libraryUserService.disableUser(user.getId()).orElseThrow();
+        assertThat(disabled.getVersion()).isEqualTo(user.getVersion() + 1);
+        assertThat(listener.received).containsExactly(List.of(
+                new Invalidation(CachedEntity.USER, user.getId(), disabled.getVersion())));
+        assertThat(principalCache.size()).isZero();
+
+        Book book = new Book();
+        book.setTitle("Designing Data-Intensive Applications");
+        book.setIsbn("1449373321");
+        book.setTotalCopies(2);
+        book = bookService.saveBook(book);
+
+        listener.received.clear();
+        Book borrowed = bookService.borrowBook(book.getId(), user).orElseThrow();
+        assertThat(borrowed.getVersion()).isEqualTo(book.getVersion() + 1);
+        assertThat(listener.received).containsExactly(List.of(
+                new Invalidation(CachedEntity.BOOK, book.getId(), borrowed.getVersion())));
+    }
+}
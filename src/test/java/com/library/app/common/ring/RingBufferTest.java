@@ -0,0 +1,80 @@
+package com.library.app.common.ring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RingBufferTest {
+
+    static final class LongEvent {
+        long value;
+    }
+
+    @Test
+    void testConsumersSeeEveryEventInOrderAcrossWraps() throws Exception {
+        int producers = 3;
+        int perProducer = 20_000;
+        long total = (long) producers * perProducer;
+
+        // Small buffer so producers wrap many times and get gated by the consumers
+        RingBuffer<LongEvent> ringBuffer = new RingBuffer<>(64, LongEvent::new, WaitStrategy.forName("blocking"));
+
+        AtomicLong sum = new AtomicLong();
+        AtomicLong lastSequence = new AtomicLong(-1);
+        AtomicLong outOfOrder = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(1);
+
+        BatchEventProcessor<LongEvent> processor = new BatchEventProcessor<>("test", ringBuffer, (event, sequence, endOfBatch) -> {
+            if (sequence != lastSequence.get() + 1) {
+                outOfOrder.incrementAndGet();
+            }
+            lastSequence.set(sequence);
+            sum.addAndGet(event.value);
+            if (sequence == total - 1) {
+                done.countDown();
+            }
+        }, 16);
+        Thread consumer = new Thread(processor);
+        consumer.start();
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int i = 1; i <= perProducer; i++) {
+                    long sequence = ringBuffer.next();
+                    ringBuffer.get(sequence).value = i;
+                    ringBuffer.publish(sequence);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        processor.halt();
+        consumer.join(5_000);
+
+        assertThat(outOfOrder.get()).isZero();
+        assertThat(sum.get()).isEqualTo(producers * ((long) perProducer * (perProducer + 1) / 2));
+        assertThat(processor.lag()).isZero();
+    }
+
+    @Test
+    void testDepthTracksSlowestConsumer() {
+        RingBuffer<LongEvent> ringBuffer = new RingBuffer<>(8, LongEvent::new, WaitStrategy.forName("yielding"));
+        BatchEventProcessor<LongEvent> processor = new BatchEventProcessor<>("idle", ringBuffer, (event, sequence, endOfBatch) -> { }, 4);
+
+        for (int i = 0; i < 5; i++) {
+            ringBuffer.publish(ringBuffer.next());
+        }
+
+        assertThat(ringBuffer.depth()).isEqualTo(5);
+        assertThat(processor.lag()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,107 @@
+package com.library.app.config;
+
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import com.library.app.library.service.BookService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setup() throws Exception {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+
+        RegisterRequest admin = new RegisterRequest();
+        admin.setUsername("admin");
+        admin.setPassword("admin123");
+        admin.setRoles(Set.of(LibraryUserRoles.ROLE_ADMIN, LibraryUserRoles.ROLE_USER));
+        libraryUserService.register(admin);
+        adminToken = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"admin\",\"password\":\"admin123\"}"))
+                .andReturn().getResponse().getContentAsString();
+
+        Book book = new Book();
+        book.setTitle("Release It!");
+        book.setAuthor("Michael Nygard");
+        book.setIsbn("1680502395");
+        bookService.saveBook(book);
+    }
+
+    @Test
+    void testRecordsQueriesPerRequestAndRepositoryTimers() throws Exception {
+        mockMvc.perform(get("/api/books").header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        DistributionSummary queries = meterRegistry.get("library.http.server.queries")
+                .tag("uri", "/api/books").tag("method", "GET").summary();
+        assertThat(queries.count()).isEqualTo(1);
+        // User lookup for the token, the page query and its count query
+        assertThat(queries.totalAmount()).isGreaterThanOrEqualTo(2);
+
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "BookRepository").tag("method", "findAll").timer().count()).isPositive();
+    }
+
+    @Test
+    void testPrometheusScrapeHasSloBuckets() throws Exception {
+        mockMvc.perform(get("/api/books").header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("le=\"0.1\"")
+                .contains("hikaricp_connections_acquire_seconds")
+                .contains("hibernate_entities_loads_total")
+                .contains("library_http_server_queries_bucket{");
+    }
+}
@@ -0,0 +1,38 @@
+package com.library.app.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PermitGatedDataSourceTest {
+
+    private final PermitGatedDataSource gate = new PermitGatedDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:permits;DB_CLOSE_DELAY=-1", "sa", ""), 2, Duration.ofMillis(50));
+
+    @Test
+    void testPermitsAreReturnedOnClose() throws Exception {
+        Connection first = gate.getConnection();
+        Connection second = gate.getConnection();
+        assertThat(gate.getAvailablePermits()).isZero();
+        assertThat(first).isInstanceOf(ConnectionProxy.class);
+
+        assertThatThrownBy(gate::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        assertThat(gate.getAvailablePermits()).isEqualTo(1);
+
+        second.close();
+        try (Connection third = gate.getConnection()) {
+            assertThat(third.isValid(1)).isTrue();
+        }
+        assertThat(gate.getAvailablePermits()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,101 @@
+package com.library.app.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two embedded H2 databases: the regular test database as primary and a second one
+ * as replica. Each holds a marker row naming itself, so a query reveals where it was routed.
+ */
+@SpringBootTest(properties = {
+        "library.datasource.replicas[0].url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "library.datasource.replicas[0].username=sa",
+        "library.datasource.replicas[0].password=",
+        "library.datasource.read-your-writes-window=PT1M"
+})
+@ActiveProfiles("test")
+public class ReadReplicaRoutingTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    private final JdbcTemplate replicaJdbc =
+            new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.execute("create table if not exists db_marker (name varchar(20))");
+        jdbcTemplate.execute("delete from db_marker");
+        jdbcTemplate.update("insert into db_marker values ('primary')");
+
+        replicaJdbc.execute("create table if not exists db_marker (name varchar(20))");
+        replicaJdbc.execute("delete from db_marker");
+        replicaJdbc.update("insert into db_marker values ('replica')");
+
+        replicaRoutingDataSource.setHealthy(0, true);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToReplica() {
+        assertThat(readMarker(true)).isEqualTo("replica");
+        assertThat(readMarker(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void testRecentWriterReadsFromPrimary() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("john", null, List.of()));
+        assertThat(readMarker(true)).isEqualTo("replica");
+
+        readYourWrites.recordWrite("john");
+        assertThat(readMarker(true)).isEqualTo("primary");
+
+        // Other users are not affected by john's window
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        assertThat(readMarker(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void testUnhealthyReplicaFallsBackToPrimary() {
+        replicaRoutingDataSource.setHealthy(0, false);
+        assertThat(readMarker(true)).isEqualTo("primary");
+
+        replicaRoutingDataSource.checkHealth();
+        assertThat(replicaRoutingDataSource.healthyReplicas()).isEqualTo(1);
+        assertThat(readMarker(true)).isEqualTo("replica");
+    }
+
+    private String readMarker(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("select name from db_marker", String.class));
+    }
+}
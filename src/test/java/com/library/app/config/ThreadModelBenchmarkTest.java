@@ -0,0 +1,170 @@
+package com.library.app.config;
+
+import com.library.app.AppApplication;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.model.Book;
+import com.library.app.library.service.BookService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A/B comparison of platform and virtual request threads on the book read and borrow paths.
+ * Each arm boots its own application on a fresh in-memory database with the same Tomcat and
+ * pool limits, then runs the same closed-loop workload and logs throughput and latency.
+ * <p>
+ * Not part of the default build; run with {@code mvn -Pbenchmark test} on Java 21+. The
+ * workload can be tuned with {@code -Dbenchmark.clients}, {@code -Dbenchmark.seconds} and
+ * {@code -Dbenchmark.tomcat-threads}.
+ */
+@Tag("benchmark")
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class ThreadModelBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadModelBenchmarkTest.class);
+
+    private final int clients = Integer.getInteger("benchmark.clients", 400);
+    private final int seconds = Integer.getInteger("benchmark.seconds", 15);
+    private final int tomcatThreads = Integer.getInteger("benchmark.tomcat-threads", 200);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run("platform", "test");
+        Result virtual = run("virtual", "test", "virtual-threads");
+        logger.info("{}", platform);
+        logger.info("{}", virtual);
+    }
+
+    private Result run(String name, String... profiles) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .profiles(profiles)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + name + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "server.tomcat.threads.max=" + tomcatThreads,
+                        "logging.level.com.library=WARN",
+                        // Keeps the benchmark results visible
+                        "logging.level.com.library.app.config.ThreadModelBenchmarkTest=INFO")
+                .run()) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            long[] bookIds = seed(context);
+            String token = login(base);
+
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                long bookId = bookIds[i];
+                futures.add(executor.submit(() -> drive(base, token, bookId, deadline)));
+            }
+
+            long[] latencies = new long[0];
+            long errors = 0;
+            for (Future<long[]> future : futures) {
+                long[] samples = future.get();
+                // The last slot carries the error count
+                errors += samples[samples.length - 1];
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + samples.length - 1);
+                System.arraycopy(samples, 0, latencies, offset, samples.length - 1);
+            }
+            executor.shutdown();
+            Arrays.sort(latencies);
+            return new Result(name, latencies.length / (double) seconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), errors);
+        }
+    }
+
+    private long[] seed(ConfigurableApplicationContext context) {
+        RegisterRequest user = new RegisterRequest();
+        user.setUsername("bench");
+        user.setPassword("bench123");
+        user.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+        context.getBean(LibraryUserService.class).register(user);
+
+        BookService bookService = context.getBean(BookService.class);
+        long[] ids = new long[clients];
+        for (int i = 0; i < clients; i++) {
+            Book book = new Book();
+            book.setTitle("Benchmark " + i);
+            book.setAuthor("Author " + (i % 50));
+            book.setIsbn("BENCH-" + i);
+            ids[i] = bookService.saveBook(book).getId();
+        }
+        return ids;
+    }
+
+    private static String login(String base) throws Exception {
+        return HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"bench\",\"password\":\"bench123\"}"))
+                        .build(), HttpResponse.BodyHandlers.ofString())
+                .body();
+    }
+
+    // Nine reads for every borrow and return; each client owns one book so loans never collide
+    private static long[] drive(String base, String token, long bookId, long deadline) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest read = HttpRequest.newBuilder(URI.create(base + "/api/books?page=0&size=20"))
+                .header("Authorization", "Bearer " + token).GET().build();
+        HttpRequest borrow = HttpRequest.newBuilder(URI.create(base + "/api/books/" + bookId + "/borrow"))
+                .header("Authorization", "Bearer " + token).POST(HttpRequest.BodyPublishers.noBody()).build();
+        HttpRequest giveBack = HttpRequest.newBuilder(URI.create(base + "/api/books/" + bookId + "/return"))
+                .header("Authorization", "Bearer " + token).POST(HttpRequest.BodyPublishers.noBody()).build();
+
+        long[] samples = new long[1024];
+        int count = 0;
+        long errors = 0;
+        for (int n = 0; System.nanoTime() < deadline; n++) {
+            HttpRequest request = n % 10 == 8 ? borrow : n % 10 == 9 ? giveBack : read;
+            long start = System.nanoTime();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            long elapsed = System.nanoTime() - start;
+            if (status >= 400) {
+                errors++;
+            }
+            if (count == samples.length - 1) {
+                samples = Arrays.copyOf(samples, samples.length * 2);
+            }
+            samples[count++] = elapsed;
+        }
+        samples = Arrays.copyOf(samples, count + 1);
+        samples[count] = errors;
+        return samples;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private record Result(String threads, double throughput, double p50Millis, double p99Millis, long errors) {
+        @Override
+        public String toString() {
+            return String.format("%-8s threads: %,.0f req/s, p50 %.2f ms, p99 %.2f ms, %d errors",
+                    threads, throughput, p50Millis, p99Millis, errors);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.library.app.config;
+
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.model.Book;
+import com.library.app.library.service.BookService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the book endpoints on virtual threads while JFR records {@code jdk.VirtualThreadPinned}
+ * and fails if any pinned stack runs through application code. Pinning inside the H2 driver
+ * used by tests is ignored.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:pinning;DB_CLOSE_DELAY=-1")
+@ActiveProfiles({"test", "virtual-threads"})
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class VirtualThreadPinningTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void testRequestsDoNotPinCarrierThreads() throws Exception {
+        assertThat(dataSource).isInstanceOf(PermitGatedDataSource.class);
+
+        RegisterRequest user = new RegisterRequest();
+        user.setUsername("pinning");
+        user.setPassword("pinning123");
+        user.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+        libraryUserService.register(user);
+        String token = send(HttpRequest.newBuilder(uri("/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"pinning\",\"password\":\"pinning123\"}")))
+                .body();
+
+        int clients = 32;
+        long[] bookIds = new long[clients];
+        for (int i = 0; i < clients; i++) {
+            Book book = new Book();
+            book.setTitle("Pinning " + i);
+            book.setAuthor("Author");
+            book.setIsbn("PIN-" + i);
+            bookIds[i] = bookService.saveBook(book).getId();
+        }
+
+        Path dump = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < clients; i++) {
+                    long bookId = bookIds[i];
+                    futures.add(executor.submit(() -> {
+                        for (int n = 0; n < 10; n++) {
+                            send(authorized(uri("/api/books?page=0&size=10"), token).GET());
+                            send(authorized(uri("/api/books/" + bookId + "/borrow"), token)
+                                    .POST(HttpRequest.BodyPublishers.noBody()));
+                            send(authorized(uri("/api/books/" + bookId + "/return"), token)
+                                    .POST(HttpRequest.BodyPublishers.noBody()));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<String> pinned = RecordingFile.readAllEvents(dump).stream()
+                .filter(VirtualThreadPinningTest::inApplicationCode)
+                .map(event -> event.getStackTrace().toString())
+                .toList();
+        Files.delete(dump);
+        assertThat(pinned).isEmpty();
+    }
+
+    private static boolean inApplicationCode(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith("com.library.app.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static HttpRequest.Builder authorized(URI uri, String token) {
+        return HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isLessThan(500);
+        return response;
+    }
+}
@@ -0,0 +1,89 @@
+package com.library.app.datagen;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The runner fills a separate in-memory database on startup; the test then checks the shape of
+ * the data and regenerates it to prove the output only depends on the seed.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:datagen;DB_CLOSE_DELAY=-1",
+        "library.datagen.books=3000",
+        "library.datagen.users=500",
+        "library.datagen.authors=200",
+        "library.datagen.vocabulary=300",
+        "library.datagen.batch-size=400",
+        "library.datagen.threads=4",
+        "library.datagen.exit=false"
+})
+@ActiveProfiles({"test", "datagen"})
+public class DatasetGeneratorTest {
+
+    @Autowired
+    private DatasetGenerator generator;
+
+    @Autowired
+    private DatasetGeneratorProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testGeneratesConsistentSkewedCatalog() {
+        assertThat(count("select count(*) from books")).isEqualTo(3000);
+        assertThat(count("select count(*) from users where username like 'reader%'")).isEqualTo(500);
+
+        // Counters on books agree with the copies
+        assertThat(count("select count(*) from books b where b.total_copies <> " +
+                "(select count(*) from book_copies c where c.book_id = b.id) or b.available_copies <> " +
+                "(select count(*) from book_copies c where c.book_id = b.id and c.available = true) or " +
+                "b.available <> (b.available_copies > 0)")).isZero();
+
+        // Patrons' loan counters agree with the copies they hold
+        assertThat(count("select count(*) from users u where u.active_loans <> " +
+                "(select count(*) from book_copies c where c.borrower_id = u.id)")).isZero();
+        assertThat(count("select sum(active_loans) from users")).isPositive();
+
+        long copies = count("select count(*) from book_copies");
+        long onLoan = count("select count(*) from book_copies where available = false");
+        assertThat((double) onLoan / copies).isBetween(0.15, 0.4);
+
+        // Zipf: the most prolific author has far more books than the median one
+        List<Long> perAuthor = jdbcTemplate.queryForList(
+                "select count(*) from books group by author order by count(*) desc", Long.class);
+        assertThat(perAuthor.get(0)).isGreaterThan(10 * perAuthor.get(perAuthor.size() / 2));
+    }
+
+    @Test
+    void testSameSeedGeneratesSameRows() {
+        List<Map<String, Object>> before = sample();
+
+        properties.setTruncate(true);
+        try {
+            generator.generate();
+        } finally {
+            properties.setTruncate(false);
+        }
+
+        assertThat(sample()).isEqualTo(before);
+    }
+
+    private List<Map<String, Object>> sample() {
+        return jdbcTemplate.queryForList("select b.id, b.title, b.author, b.isbn, b.available_copies, " +
+                "(select sum(coalesce(c.borrower_id, 0)) from book_copies c where c.book_id = b.id) borrowers " +
+                "from books b where mod(b.id, 97) = 0 order by b.id");
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
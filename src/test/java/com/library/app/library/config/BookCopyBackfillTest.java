@@ -0,0 +1,88 @@
+package com.library.app.library.config;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.library.model.SweeperWatermark;
+import com.library.app.library.repository.BookRepository;
+import com.library.app.library.repository.SweeperWatermarkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookCopyBackfillTest {
+
+    @Autowired
+    private BookCopyBackfill backfill;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private SweeperWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+        watermarkRepository.deleteAll();
+        jdbcTemplate.execute("alter table books add column borrower_id bigint");
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAll();
+        jdbcTemplate.execute("alter table books drop column borrower_id");
+    }
+
+    @Test
+    void testCreatesCopiesOnceAndRemembersCompletion() {
+        LibraryUser borrower = new LibraryUser();
+        borrower.setUsername("legacyreader");
+        borrower.setPassword("unused");
+        borrower.setRoles(EnumSet.of(LibraryUserRoles.ROLE_USER));
+        borrower = libraryUserRepository.save(borrower);
+        insertLegacyBook(900001, true, null);
+        insertLegacyBook(900002, false, borrower.getId());
+
+        backfill.run();
+
+        assertThat(count("select count(*) from book_copies where book_id = 900001 and available = true")).isEqualTo(1);
+        assertThat(count("select count(*) from book_copies where book_id = 900002 and available = false " +
+                "and borrower_id = " + borrower.getId())).isEqualTo(1);
+        assertThat(count("select available_copies from books where id = 900002")).isZero();
+        assertThat(watermarkRepository.findById(BookCopyBackfill.WATERMARK))
+                .map(SweeperWatermark::getLastId).hasValue(BookCopyBackfill.DONE);
+
+        // Later boots skip the scan altogether
+        insertLegacyBook(900003, true, null);
+        backfill.run();
+        assertThat(count("select count(*) from book_copies where book_id = 900003")).isZero();
+    }
+
+    private void insertLegacyBook(long id, boolean available, Long borrowerId) {
+        jdbcTemplate.update("insert into books (id, title, isbn, branch, available, total_copies, available_copies, " +
+                "version, borrower_id) values (?, ?, ?, 'main', ?, 1, 1, 0, ?)",
+                id, "Legacy " + id, "isbn-" + id, available, borrowerId);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -1,6 +1,8 @@
 package com.library.app.library.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.library.app.auth.model.LibraryUser;
 import com.library.app.auth.model.LibraryUserRoles;
 import com.library.app.auth.model.LoginRequest;
@@ -9,26 +11,33 @@ import com.library.app.auth.repository.LibraryUserRepository;
 import com.library.app.auth.service.LibraryUserService;
 import com.library.app.library.model.Book;
 import com.library.app.library.repository.BookRepository;
+import com.library.app.library.stats.CatalogStatsService;
+import com.library.app.support.sql.SqlRecorderConfiguration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.library.app.support.sql.SqlBudget.sqlBudget;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@Import(SqlRecorderConfiguration.class)
 public class BookControllerTest {
 
     @Autowired
@@ -46,6 +55,9 @@ public class BookControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CatalogStatsService catalogStatsService;
+
     private String adminToken;
     private String userToken;
     private Book sampleBook;
@@ -153,13 +165,113 @@ public class BookControllerTest {
 
         mockMvc.perform(post("/api/books/" + bookId + "/borrow")
                         .header("Authorization", "Bearer " + userToken))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(sqlBudget().maxSelects(4).maxInserts(0).maxUpdates(3).noFullScans());
 
         Optional<Book> borrowed = bookRepository.findById(bookId);
         assertThat(borrowed).isPresent();
         assertThat(borrowed.get().isAvailable()).isFalse();
     }
 
+    /**
+     * ✅ Test: Copies of one title are lent out until the counter reaches zero
+     */
+    @Test
+    void testBorrowMultipleCopies() throws Exception {
+        Long bookId = bookRepository.findAll().get(0).getId();
+
+        mockMvc.perform(post("/api/books/" + bookId + "/copies")
+                        .param("count", "1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCopies").value(2))
+                .andExpect(jsonPath("$.availableCopies").value(2));
+
+        mockMvc.perform(post("/api/books/" + bookId + "/borrow")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableCopies").value(1))
+                .andExpect(jsonPath("$.available").value(true));
+
+        mockMvc.perform(post("/api/books/" + bookId + "/borrow")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableCopies").value(0))
+                .andExpect(jsonPath("$.available").value(false));
+
+        mockMvc.perform(post("/api/books/" + bookId + "/borrow")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/books/" + bookId + "/return")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableCopies").value(1))
+                .andExpect(jsonPath("$.available").value(true));
+    }
+
+    /**
+     * ✅ Test: A retried borrow with the same Idempotency-Key replays the first response
+     */
+    @Test
+    void testBorrowWithIdempotencyKeyIsReplayed() throws Exception {
+        Long bookId = bookRepository.findAll().get(0).getId();
+
+        String first = mockMvc.perform(post("/api/books/" + bookId + "/borrow")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("Idempotency-Key", "borrow-1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Without the key the retry would be rejected as "already borrowed"
+        mockMvc.perform(post("/api/books/" + bookId + "/borrow")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("Idempotency-Key", "borrow-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().json(first));
+
+        // Same key from another user is a different request
+        mockMvc.perform(post("/api/books/" + bookId + "/borrow")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("Idempotency-Key", "borrow-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * ✅ Test: A retried create with the same Idempotency-Key does not insert twice
+     */
+    @Test
+    void testCreateWithIdempotencyKeyIsReplayed() throws Exception {
+        Book newBook = new Book();
+        newBook.setTitle("Domain-Driven Design");
+        newBook.setAuthor("Eric Evans");
+        newBook.setIsbn("0321125215");
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/books")
+                            .header("Authorization", "Bearer " + adminToken)
+                            .header("Idempotency-Key", "create-ddd")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(newBook)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.isbn").value("0321125215"));
+        }
+
+        assertThat(bookRepository.findByIsbn("0321125215")).isPresent();
+        assertThat(bookRepository.count()).isEqualTo(2);
+
+        // The same key with another body is a client bug, not a retry
+        newBook.setTitle("Implementing Domain-Driven Design");
+        mockMvc.perform(post("/api/books")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("Idempotency-Key", "create-ddd")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newBook)))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(bookRepository.count()).isEqualTo(2);
+    }
+
     /**
      * ✅ Test: Return borrowed book by same user
      */
@@ -175,7 +287,8 @@ public class BookControllerTest {
         // Return it
         mockMvc.perform(post("/api/books/" + bookId + "/return")
                         .header("Authorization", "Bearer " + userToken))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(sqlBudget().maxSelects(6).maxInserts(0).maxUpdates(3).noFullScans());
 
         Optional<Book> returned = bookRepository.findById(bookId);
         assertThat(returned).isPresent();
@@ -223,7 +336,49 @@ public class BookControllerTest {
     void testGetAllBooks() throws Exception {
         mockMvc.perform(get("/api/books")
                         .header("Authorization", "Bearer " + adminToken))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(sqlBudget().maxSelects(2).maxStatements(2).maxTotalTime(Duration.ofSeconds(1)).noFullScans());
+    }
+
+    /**
+     * ✅ Test: Lists use the compact page envelope, as JSON by default and CBOR on request
+     */
+    @Test
+    void testPageEnvelopeAndCborNegotiation() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].title").value("Effective Java"))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.size").value(10))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.pageable").doesNotExist())
+                .andExpect(jsonPath("$.sort").doesNotExist());
+
+        byte[] cbor = mockMvc.perform(get("/api/books")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode page = new CBORMapper().readTree(cbor);
+        assertThat(page.get("content").get(0).get("title").asText()).isEqualTo("Effective Java");
+        assertThat(page.get("totalElements").asLong()).isEqualTo(1);
+    }
+
+    /**
+     * ❌ Test: A request over its SQL budget fails with the statements it ran
+     */
+    @Test
+    void testSqlBudgetReportsOffendingStatements() {
+        assertThatThrownBy(() -> mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(sqlBudget().maxSelects(0)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("SELECT statements, budget 0")
+                .hasMessageContaining("from books");
     }
 
     /**
@@ -249,4 +404,123 @@ public class BookControllerTest {
                         .header("Authorization", "Bearer " + userToken))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    void testRelatedBooksFollowBorrows() throws Exception {
+        Long firstId = bookRepository.findAll().get(0).getId();
+        Book second = new Book();
+        second.setTitle("Java Concurrency in Practice");
+        second.setAuthor("Brian Goetz");
+        second.setIsbn("0321349601");
+        String created = mockMvc.perform(post("/api/books")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(second)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long secondId = objectMapper.readTree(created).get("id").asLong();
+
+        for (long id : new long[]{firstId, secondId}) {
+            mockMvc.perform(post("/api/books/" + id + "/borrow").header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isOk());
+        }
+
+        // The model is updated by the event bus consumer, after the borrows committed
+        long deadline = System.currentTimeMillis() + 5_000;
+        JsonNode related;
+        do {
+            Thread.sleep(20);
+            related = objectMapper.readTree(mockMvc.perform(get("/api/books/" + firstId + "/related")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isOk())
+                    .andExpect(sqlBudget().maxSelects(0))
+                    .andReturn().getResponse().getContentAsString());
+        } while (related.isEmpty() && System.currentTimeMillis() < deadline);
+
+        assertThat(related.get(0).get("bookId").asLong()).isEqualTo(secondId);
+        assertThat(related.get(0).get("score").asInt()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/books/" + firstId + "/related").param("limit", "0")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testViewedBooksTrend() throws Exception {
+        Long bookId = bookRepository.findAll().get(0).getId();
+        // Enough views to rank among titles borrowed by other tests of this context
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(get("/api/books/" + bookId).header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isOk());
+        }
+
+        String body = mockMvc.perform(get("/api/books/trending").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(sqlBudget().maxSelects(0))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(body).findValuesAsText("bookId")).contains(bookId.toString());
+
+        mockMvc.perform(get("/api/books/trending").param("limit", "1000")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCatalogStatsFollowWrites() throws Exception {
+        // The repository cleanup in setUp bypasses BookService
+        catalogStatsService.reconcile();
+        Long bookId = bookRepository.findAll().get(0).getId();
+
+        mockMvc.perform(post("/api/books/" + bookId + "/copies").param("count", "2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/books/" + bookId + "/borrow").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+
+        Book other = new Book();
+        other.setTitle("Refactoring");
+        other.setAuthor("Martin Fowler");
+        other.setIsbn("0134757599");
+        String created = mockMvc.perform(post("/api/books")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(other)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long otherId = objectMapper.readTree(created).get("id").asLong();
+        other.setAuthor("Joshua Bloch");
+        mockMvc.perform(put("/api/books/" + otherId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(other)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/books/" + otherId + "/borrow").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/books/stats").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titles").value(2))
+                .andExpect(jsonPath("$.availableTitles").value(1))
+                .andExpect(jsonPath("$.unavailableTitles").value(1))
+                .andExpect(jsonPath("$.copies").value(4))
+                .andExpect(jsonPath("$.borrowedCopies").value(2))
+                .andExpect(jsonPath("$.topAuthors.length()").value(1))
+                .andExpect(jsonPath("$.topAuthors[0].author").value("Joshua Bloch"))
+                .andExpect(jsonPath("$.topAuthors[0].titles").value(2))
+                .andExpect(sqlBudget().maxSelects(0));
+
+        mockMvc.perform(delete("/api/books/" + otherId).header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful());
+        mockMvc.perform(get("/api/books/stats").param("topAuthors", "0")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titles").value(1))
+                .andExpect(jsonPath("$.availableCopies").value(2))
+                .andExpect(jsonPath("$.topAuthors.length()").value(0));
+        assertThat(catalogStatsService.reconcile()).isZero();
+
+        mockMvc.perform(get("/api/books/stats").param("topAuthors", "-1")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,162 @@
+package com.library.app.library.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.LoginRequest;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import com.library.app.support.sql.SqlRecorderConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static com.library.app.support.sql.SqlBudget.sqlBudget;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "library.branches.names=main,east")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SqlRecorderConfiguration.class)
+public class BranchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String mainToken;
+    private String eastToken;
+    private long mainBookId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+
+        mainToken = registerAndLogin("mainadmin", "main");
+        eastToken = registerAndLogin("eastadmin", "east");
+
+        mainBookId = createBook(mainToken, "Java Concurrency in Practice", "0321349601");
+        createBook(eastToken, "Java Puzzlers", "032133678X");
+        // Same ISBN in another branch is a separate holding
+        createBook(eastToken, "Java Concurrency in Practice", "0321349601");
+    }
+
+    @Test
+    void testCatalogIsScopedToCallersBranch() throws Exception {
+        mockMvc.perform(get("/api/books").header("Authorization", "Bearer " + mainToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].branch").value("main"))
+                .andExpect(sqlBudget().maxSelects(2).requireFilter("books", "branch"));
+
+        mockMvc.perform(get("/api/books").header("Authorization", "Bearer " + eastToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].branch").value("east"));
+
+        mockMvc.perform(get("/api/books/" + mainBookId).header("Authorization", "Bearer " + eastToken))
+                .andExpect(status().isNotFound())
+                .andExpect(sqlBudget().requireFilter("books", "branch"));
+
+        mockMvc.perform(get("/api/reactive/books").header("Authorization", "Bearer " + eastToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testSearchFansOutAcrossBranches() throws Exception {
+        String body = mockMvc.perform(get("/api/branches/search")
+                        .param("title", "java")
+                        .header("Authorization", "Bearer " + mainToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode books = objectMapper.readTree(body);
+        assertThat(books).hasSize(3);
+        assertThat(books.findValuesAsText("branch")).containsExactly("east", "main", "east");
+
+        mockMvc.perform(get("/api/branches/search")
+                        .param("title", "java")
+                        .param("size", "1")
+                        .header("Authorization", "Bearer " + mainToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void testPartitionAdministration() throws Exception {
+        mockMvc.perform(get("/api/branches").header("Authorization", "Bearer " + mainToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1]").value("east"));
+
+        mockMvc.perform(post("/api/branches/East/detach").header("Authorization", "Bearer " + mainToken))
+                .andExpect(status().isBadRequest());
+
+        // Partitions need PostgreSQL
+        mockMvc.perform(post("/api/branches/east/detach").header("Authorization", "Bearer " + mainToken))
+                .andExpect(status().isConflict());
+
+        String userToken = registerAndLogin("reader", "east", LibraryUserRoles.ROLE_USER);
+        mockMvc.perform(post("/api/branches/east/detach").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private String registerAndLogin(String username, String branch) throws Exception {
+        return registerAndLogin(username, branch, LibraryUserRoles.ROLE_ADMIN, LibraryUserRoles.ROLE_USER);
+    }
+
+    private String registerAndLogin(String username, String branch, LibraryUserRoles... roles) throws Exception {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("secret123");
+        request.setBranch(branch);
+        request.setRoles(Set.of(roles));
+        libraryUserService.register(request);
+
+        return mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest(username, "secret123"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private long createBook(String token, String title, String isbn) throws Exception {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Joshua Bloch");
+        book.setIsbn(isbn);
+        book.setAvailable(true);
+
+        String body = mockMvc.perform(post("/api/books")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}
@@ -0,0 +1,167 @@
+package com.library.app.library.controller;
+
+import com.library.app.AppApplication;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.config.ReactiveCatalogDatabase;
+import com.library.app.library.model.Book;
+import com.library.app.library.service.BookService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Compares what 10k concurrent catalog clients cost on the blocking {@code /api/books} endpoint
+ * and on the streaming {@code /api/reactive/books} endpoint: peak live threads, peak heap growth
+ * and peak database connections in use. Client and server share one JVM, so the absolute numbers
+ * include the client side; the difference between the two arms is what matters.
+ * <p>
+ * Not part of the default build; run with {@code mvn -Pbenchmark test}. Tune with
+ * {@code -Dbenchmark.catalog.clients} and {@code -Dbenchmark.catalog.books}. Ten thousand clients
+ * need an open file limit above 20k.
+ */
+@Tag("benchmark")
+public class CatalogConcurrencyBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogConcurrencyBenchmarkTest.class);
+
+    private final int clients = Integer.getInteger("benchmark.catalog.clients", 10_000);
+    private final int books = Integer.getInteger("benchmark.catalog.books", 500);
+
+    // Shared by both arms so the second one reuses the keep-alive connections of the first
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+    @Test
+    void compareBlockingAndReactiveReads() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-catalog;DB_CLOSE_DELAY=-1",
+                        "library.reactive.url=r2dbc:h2:mem:///bench-catalog?options=DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "spring.datasource.hikari.connection-timeout=60000",
+                        "library.reactive.max-pool-size=20",
+                        "server.tomcat.max-connections=" + (clients * 2),
+                        "server.tomcat.accept-count=" + clients,
+                        "logging.level.com.library=WARN",
+                        // Keeps the benchmark results visible
+                        "logging.level.com.library.app.library.controller.CatalogConcurrencyBenchmarkTest=INFO")
+                .run()) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String token = seed(context, base);
+
+            HikariDataSource hikari = DataSourceUnwrapper.unwrap(context.getBean(DataSource.class), HikariDataSource.class);
+            ReactiveCatalogDatabase reactive = context.getBean(ReactiveCatalogDatabase.class);
+
+            Result blocking = run("blocking", base + "/api/books?page=0&size=100", token,
+                    () -> hikari.getHikariPoolMXBean().getActiveConnections());
+            Result streaming = run("reactive", base + "/api/reactive/books?limit=100", token,
+                    () -> reactive.getPool().getMetrics().map(m -> m.acquiredSize()).orElse(0));
+            logger.info("{}", blocking);
+            logger.info("{}", streaming);
+        }
+    }
+
+    private String seed(ConfigurableApplicationContext context, String base) throws Exception {
+        RegisterRequest user = new RegisterRequest();
+        user.setUsername("bench");
+        user.setPassword("bench123");
+        user.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+        context.getBean(LibraryUserService.class).register(user);
+
+        BookService bookService = context.getBean(BookService.class);
+        for (int i = 0; i < books; i++) {
+            Book book = new Book();
+            book.setTitle("Catalog " + i);
+            book.setAuthor("Author " + (i % 50));
+            book.setIsbn("CAT-" + i);
+            bookService.saveBook(book);
+        }
+        return client.send(HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"bench\",\"password\":\"bench123\"}"))
+                        .build(), HttpResponse.BodyHandlers.ofString())
+                .body();
+    }
+
+    private Result run(String name, String url, String token, IntSupplier connectionsInUse) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        int baselineThreads = threads.getThreadCount();
+
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicLong peakThreads = new AtomicLong();
+        AtomicLong peakConnections = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                peakConnections.accumulateAndGet(connectionsInUse.getAsInt(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofMinutes(2))
+                .build();
+        long start = System.nanoTime();
+        List<CompletableFuture<Integer>> responses = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(HttpResponse::statusCode)
+                    .exceptionally(e -> -1));
+        }
+        long errors = 0;
+        for (CompletableFuture<Integer> response : responses) {
+            if (response.join() != 200) {
+                errors++;
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        sampler.interrupt();
+        sampler.join();
+
+        return new Result(name, clients, elapsedMillis, peakThreads.get() - baselineThreads,
+                (peakHeap.get() - baselineHeap) / (1024 * 1024), peakConnections.get(), errors);
+    }
+
+    private record Result(String endpoint, int clients, long elapsedMillis, long extraThreads, long extraHeapMiB,
+                          long peakConnections, long errors) {
+        @Override
+        public String toString() {
+            return String.format("%-8s %,d clients in %,d ms: +%d threads, +%d MiB heap, %d db connections, %d errors",
+                    endpoint, clients, elapsedMillis, extraThreads, extraHeapMiB, peakConnections, errors);
+        }
+    }
+}
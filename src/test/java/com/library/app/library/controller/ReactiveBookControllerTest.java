@@ -0,0 +1,143 @@
+package com.library.app.library.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import com.library.app.library.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a real server so the async dispatch that completes a streamed response goes
+ * through the security filter chain like it does in production.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ReactiveBookControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private String token;
+
+    @BeforeEach
+    void setup() throws Exception {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+
+        RegisterRequest userReq = new RegisterRequest();
+        userReq.setUsername("john");
+        userReq.setPassword("john123");
+        userReq.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+        libraryUserService.register(userReq);
+        token = client.send(HttpRequest.newBuilder(uri("/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"john\",\"password\":\"john123\"}"))
+                        .build(), HttpResponse.BodyHandlers.ofString())
+                .body();
+
+        saveBook("Refactoring", "Martin Fowler", "0134757599");
+        saveBook("Domain-Driven Design", "Eric Evans", "0321125215");
+        saveBook("Patterns of Enterprise Application Architecture", "Martin Fowler", "0321127420");
+    }
+
+    @Test
+    void testStreamsBooksAsNdjsonInTitleOrder() throws Exception {
+        HttpResponse<String> response = get("/api/reactive/books");
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("application/x-ndjson");
+        assertThat(titles(response)).containsExactly(
+                "Domain-Driven Design", "Patterns of Enterprise Application Architecture", "Refactoring");
+
+        assertThat(titles(get("/api/reactive/books/author/fowler?limit=1"))).containsExactly(
+                "Patterns of Enterprise Application Architecture");
+        assertThat(get("/api/reactive/books?limit=0").statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void testGetByIdMatchesBlockingApi() throws Exception {
+        Book book = bookRepository.findByIsbn("0321125215").orElseThrow();
+
+        HttpResponse<String> response = get("/api/reactive/books/" + book.getId());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.body()))
+                .isEqualTo(objectMapper.readTree(get("/api/books/" + book.getId()).body()));
+
+        assertThat(get("/api/reactive/books/999999").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void testRequiresAuthentication() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/reactive/books")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(401);
+    }
+
+    private void saveBook(String title, String author, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setIsbn(isbn);
+        bookService.saveBook(book);
+    }
+
+    private List<String> titles(HttpResponse<String> response) throws Exception {
+        return response.body().lines()
+                .filter(line -> !line.isBlank())
+                .map(this::readTitle)
+                .toList();
+    }
+
+    private String readTitle(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            return node.get("title").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
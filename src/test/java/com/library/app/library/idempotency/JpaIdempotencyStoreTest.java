@@ -0,0 +1,49 @@
+package com.library.app.library.idempotency;
+
+import com.library.app.library.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"library.idempotency.store=db", "library.idempotency.lease=PT0.5S"})
+@ActiveProfiles("test")
+public class JpaIdempotencyStoreTest {
+
+    @Autowired
+    private JpaIdempotencyStore store;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void testClaimOfACrashedNodeExpiresAfterTheLease() throws Exception {
+        assertThat(store.tryBegin("key", "abc")).isTrue();
+        assertThat(store.tryBegin("key", "abc")).isFalse();
+        assertThat(store.find("key")).hasValueSatisfying(pending -> {
+            assertThat(pending.isPending()).isTrue();
+            assertThat(pending.fingerprint()).isEqualTo("abc");
+        });
+
+        // The claiming node never finishes; the key is free again once the lease runs out
+        Thread.sleep(700);
+        assertThat(store.find("key")).isEmpty();
+        assertThat(store.tryBegin("key", "abc")).isTrue();
+
+        store.save("key", new IdempotentResponse(201, null, null, "abc"));
+        assertThat(repository.findById("key").orElseThrow().getExpiresAt())
+                .isAfter(Instant.now().plus(Duration.ofHours(23)));
+        assertThat(store.find("key")).hasValueSatisfying(response -> assertThat(response.status()).isEqualTo(201));
+    }
+}
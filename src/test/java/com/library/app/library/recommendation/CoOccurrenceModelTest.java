@@ -0,0 +1,82 @@
+package com.library.app.library.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CoOccurrenceModelTest {
+
+    @Test
+    void testCountsPairsAcrossPatronsStrongestFirst() {
+        CoOccurrenceModel model = new CoOccurrenceModel(20, 100, 1000);
+        Set<Long> changed = new HashSet<>();
+
+        model.recordBorrow(1, 10, changed::add);
+        model.recordBorrow(1, 20, changed::add);
+        model.recordBorrow(1, 30, changed::add);
+        model.recordBorrow(2, 10, changed::add);
+        model.recordBorrow(2, 30, changed::add);
+        // Borrowing a title again does not count twice
+        model.recordBorrow(2, 30, changed::add);
+
+        assertThat(changed).containsExactlyInAnyOrder(10L, 20L, 30L);
+        assertThat(model.topRelated(10, 5)).containsExactly(new RelatedBook(30, 2), new RelatedBook(20, 1));
+        assertThat(model.topRelated(30, 1)).containsExactly(new RelatedBook(10, 2));
+        assertThat(model.topRelated(99, 5)).isEmpty();
+
+        changed.clear();
+        model.removeBook(30, changed::add);
+        assertThat(changed).containsExactlyInAnyOrder(10L, 20L);
+        assertThat(model.topRelated(10, 5)).containsExactly(new RelatedBook(20, 1));
+    }
+
+    @Test
+    void testPrunesWeakestPairsAndForgetsOldBorrows() {
+        CoOccurrenceModel model = new CoOccurrenceModel(3, 8, 1000);
+        // Title 1 is borrowed with 2 by many patrons, and once each with a long tail of others
+        for (long patron = 1; patron <= 5; patron++) {
+            model.recordBorrow(patron, 1, id -> { });
+            model.recordBorrow(patron, 2, id -> { });
+        }
+        for (long tail = 100; tail < 120; tail++) {
+            model.recordBorrow(1000 + tail, 1, id -> { });
+            model.recordBorrow(1000 + tail, tail, id -> { });
+        }
+
+        assertThat(model.pairCount(1)).isLessThanOrEqualTo(8);
+        assertThat(model.topRelated(1, 1)).containsExactly(new RelatedBook(2, 5));
+
+        // Only the last three borrows of a patron pair with a new one
+        for (long book = 200; book < 205; book++) {
+            model.recordBorrow(7, book, id -> { });
+        }
+        assertThat(model.topRelated(204, 10)).extracting(RelatedBook::bookId).containsExactly(201L, 202L, 203L);
+    }
+
+    @Test
+    void testRemovedTitleDisappearsAfterOneSidedPruning() {
+        CoOccurrenceModel model = new CoOccurrenceModel(3, 8, 1000);
+        for (long tail = 100; tail < 120; tail++) {
+            model.recordBorrow(tail, 1, id -> { });
+            model.recordBorrow(tail, tail, id -> { });
+        }
+        // Title 1 pruned most tail titles, but each of them still lists title 1
+        assertThat(model.pairCount(1)).isLessThanOrEqualTo(8);
+        assertThat(model.topRelated(100, 5)).containsExactly(new RelatedBook(1, 1));
+
+        Set<Long> changed = new HashSet<>();
+        model.removeBook(1, changed::add);
+        assertThat(changed).hasSize(20);
+        for (long tail = 100; tail < 120; tail++) {
+            assertThat(model.topRelated(tail, 5)).isEmpty();
+        }
+
+        // Patrons who borrowed the deleted title no longer pair it with new borrows
+        model.recordBorrow(100, 500, id -> { });
+        assertThat(model.topRelated(500, 5)).containsExactly(new RelatedBook(100, 1));
+        assertThat(model.pairCount(1)).isZero();
+    }
+}
@@ -0,0 +1,100 @@
+package com.library.app.library.recommendation;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import com.library.app.library.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RecommendationServiceTest {
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void testSeedsFromLoansInPagesInTheBackground() throws Exception {
+        Book first = newBook("Clean Code", "0132350882");
+        Book second = newBook("Refactoring", "0134757599");
+        Book third = newBook("Code Complete", "0735619670");
+        LibraryUser ada = register("ada");
+        LibraryUser grace = register("grace");
+        bookService.addCopies(first.getId(), 1);
+        bookService.borrowBook(first.getId(), ada);
+        bookService.borrowBook(second.getId(), ada);
+        bookService.borrowBook(first.getId(), grace);
+        bookService.borrowBook(third.getId(), grace);
+
+        // A fresh instance, so that only the seeding and not the live borrows feed it
+        RecommendationService recommendations = new RecommendationService(10, 80, 20, 1000, true, 1);
+        beanFactory.autowireBean(recommendations);
+        assertThat(recommendations.isSeeded()).isFalse();
+        assertThat(recommendations.related(first.getId(), 10)).isEmpty();
+
+        recommendations.seed();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!recommendations.isSeeded() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // One patron per page, so both pages had to be walked
+        assertThat(recommendations.related(first.getId(), 10)).containsExactlyInAnyOrder(
+                new RelatedBook(second.getId(), 1), new RelatedBook(third.getId(), 1));
+        assertThat(recommendations.related(second.getId(), 10)).containsExactly(new RelatedBook(first.getId(), 1));
+    }
+
+    private LibraryUser register(String username) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("secret123");
+        request.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+        libraryUserService.register(request);
+        return libraryUserRepository.findByUsername(username).orElseThrow();
+    }
+
+    private Book newBook(String title, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setIsbn(isbn);
+        return bookService.saveBook(book);
+    }
+}
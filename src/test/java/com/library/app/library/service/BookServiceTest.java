@@ -0,0 +1,170 @@
+package com.library.app.library.service;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.event.CirculationEvent;
+import com.library.app.library.event.CirculationEventListener;
+import com.library.app.library.event.CirculationEventType;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookServiceTest {
+
+    @TestConfiguration
+    static class RecordingConfiguration {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    // Copies the borrowed book ids, since the ring buffer reuses its events
+    static class RecordingListener implements CirculationEventListener {
+        final List<Long> borrowed = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onEvent(CirculationEvent event, long sequence, boolean endOfBatch) {
+            if (event.getType() == CirculationEventType.BOOK_BORROWED) {
+                borrowed.add(event.getBookId());
+            }
+        }
+    }
+
+    @Autowired
+    private RecordingListener listener;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    private LibraryUser user;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername("patron");
+        request.setPassword("secret123");
+        request.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+        libraryUserService.register(request);
+        user = libraryUserRepository.findByUsername("patron").orElseThrow();
+        listener.borrowed.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentReturnsReleaseTheLoanOnce() throws Exception {
+        Book book = newBook("Clean Code", "0132350882");
+        Book other = newBook("Refactoring", "0134757599");
+        bookService.addCopies(book.getId(), 1);
+        bookService.borrowBook(book.getId(), user);
+        bookService.borrowBook(other.getId(), user);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> returns = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                returns.add(executor.submit(() -> {
+                    start.await();
+                    return bookService.returnBook(book.getId(), user);
+                }));
+            }
+            start.countDown();
+            int failed = 0;
+            for (Future<?> result : returns) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+                    failed++;
+                }
+            }
+            assertThat(failed).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Book returned = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(returned.getAvailableCopies()).isEqualTo(2);
+        assertThat(returned.getTotalCopies()).isEqualTo(2);
+        // The loan of the other title is still counted
+        assertThat(libraryUserRepository.findById(user.getId()).orElseThrow().getActiveLoans()).isEqualTo(1);
+    }
+
+    @Test
+    void testBorrowEventsArePublishedOnlyAfterCommit() throws Exception {
+        Book rolledBack = newBook("Clean Code", "0132350882");
+        Book committed = newBook("Refactoring", "0134757599");
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            bookService.borrowBook(rolledBack.getId(), user);
+            throw new IllegalStateException("Checkout desk failed");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(bookRepository.findById(rolledBack.getId()).orElseThrow().getAvailableCopies()).isEqualTo(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bookService.borrowBook(committed.getId(), user);
+            assertThat(listener.borrowed).isEmpty();
+        });
+
+        // Consumed in publish order, so a leaked rollback event would arrive before this one
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (listener.borrowed.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(listener.borrowed).containsExactly(committed.getId());
+    }
+
+    private Book newBook(String title, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setIsbn(isbn);
+        return bookService.saveBook(book);
+    }
+}
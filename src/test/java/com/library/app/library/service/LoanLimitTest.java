@@ -0,0 +1,143 @@
+package com.library.app.library.service;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"library.loans.limits.ROLE_USER=2", "library.loans.limits.ROLE_ADMIN=3"})
+@ActiveProfiles("test")
+public class LoanLimitTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanCounterReconciler reconciler;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LibraryUser user;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+        user = register("patron", LibraryUserRoles.ROLE_USER);
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void testBorrowIsCappedByRoleLimit() {
+        Book first = newBook("Clean Code", "0132350882");
+        Book second = newBook("The Pragmatic Programmer", "020161622X");
+        Book third = newBook("Code Complete", "0735619670");
+
+        bookService.borrowBook(first.getId(), user);
+        bookService.borrowBook(second.getId(), user);
+        assertThat(activeLoans(user)).isEqualTo(2);
+
+        assertThatThrownBy(() -> bookService.borrowBook(third.getId(), user))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Loan limit of 2");
+        // The rejected borrow did not keep the copy
+        assertThat(bookRepository.findById(third.getId()).orElseThrow().getAvailableCopies()).isEqualTo(1);
+
+        bookService.returnBook(first.getId(), user);
+        assertThat(activeLoans(user)).isEqualTo(1);
+        bookService.borrowBook(third.getId(), user);
+
+        // Admins get the higher of their roles' limits
+        LibraryUser admin = register("librarian", LibraryUserRoles.ROLE_ADMIN, LibraryUserRoles.ROLE_USER);
+        bookService.borrowBook(first.getId(), admin);
+        bookService.addCopies(second.getId(), 2);
+        bookService.borrowBook(second.getId(), admin);
+        bookService.borrowBook(second.getId(), admin);
+        assertThat(activeLoans(admin)).isEqualTo(3);
+
+        // Deleting a title gives its loans back
+        bookService.deleteBook(second.getId());
+        assertThat(activeLoans(admin)).isEqualTo(1);
+        assertThat(activeLoans(user)).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedBorrowsLeaveTheLoanCounter() {
+        Book book = newBook("Working Effectively with Legacy Code", "0131177052");
+        LibraryUser other = register("other", LibraryUserRoles.ROLE_USER);
+        bookService.borrowBook(book.getId(), other);
+
+        // The loan is claimed before the copy, so both failures have to give it back
+        assertThat(bookService.borrowBook(book.getId() + 1000, user)).isEmpty();
+        assertThatThrownBy(() -> bookService.borrowBook(book.getId(), user))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already borrowed");
+        assertThat(activeLoans(user)).isZero();
+        assertThat(activeLoans(other)).isEqualTo(1);
+    }
+
+    @Test
+    void testReconcilerRepairsDrift() {
+        Book book = newBook("Release It!", "1680502395");
+        bookService.borrowBook(book.getId(), user);
+        LibraryUser idle = register("idle", LibraryUserRoles.ROLE_USER);
+
+        jdbcTemplate.update("update users set active_loans = 7 where id = ?", user.getId());
+        jdbcTemplate.update("update users set active_loans = 2 where id = ?", idle.getId());
+
+        assertThat(reconciler.reconcile()).isEqualTo(2);
+        assertThat(activeLoans(user)).isEqualTo(1);
+        assertThat(activeLoans(idle)).isZero();
+        assertThat(reconciler.reconcile()).isZero();
+    }
+
+    private int activeLoans(LibraryUser user) {
+        return libraryUserRepository.findById(user.getId()).orElseThrow().getActiveLoans();
+    }
+
+    private LibraryUser register(String username, LibraryUserRoles... roles) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("secret123");
+        request.setRoles(Set.of(roles));
+        libraryUserService.register(request);
+        return libraryUserRepository.findByUsername(username).orElseThrow();
+    }
+
+    private Book newBook(String title, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setIsbn(isbn);
+        return bookService.saveBook(book);
+    }
+}
@@ -0,0 +1,119 @@
+package com.library.app.library.service;
+
+import com.library.app.auth.model.LibraryUser;
+import com.library.app.auth.model.LibraryUserRoles;
+import com.library.app.auth.model.RegisterRequest;
+import com.library.app.auth.repository.LibraryUserRepository;
+import com.library.app.auth.service.LibraryUserService;
+import com.library.app.library.model.Book;
+import com.library.app.library.model.BookCopy;
+import com.library.app.library.repository.BookCopyRepository;
+import com.library.app.library.repository.BookRepository;
+import com.library.app.library.repository.SweeperWatermarkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class OverdueSweeperTest {
+
+    @Autowired
+    private OverdueSweeper overdueSweeper;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private SweeperWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private LibraryUserService libraryUserService;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    private LibraryUser user;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        libraryUserRepository.deleteAll();
+        watermarkRepository.deleteAll();
+
+        RegisterRequest userReq = new RegisterRequest();
+        userReq.setUsername("john");
+        userReq.setPassword("john123");
+        userReq.setRoles(Set.of(LibraryUserRoles.ROLE_USER));
+        libraryUserService.register(userReq);
+        user = libraryUserRepository.findByUsername("john").orElseThrow();
+    }
+
+    @AfterEach
+    void cleanup() {
+        // Copies on loan reference the user; leave no loans behind for other test classes
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void testBorrowSetsDueDateAndSweepMarksOverdueLoans() {
+        Book book = newBook("Refactoring", "0134757599", 3);
+        bookService.borrowBook(book.getId(), user);
+        bookService.borrowBook(book.getId(), user);
+
+        List<BookCopy> loans = bookCopyRepository.findAll().stream()
+                .filter(copy -> !copy.isAvailable())
+                .toList();
+        assertThat(loans).hasSize(2);
+        assertThat(loans).allSatisfy(copy -> assertThat(copy.getDueDate()).isAfter(Instant.now()));
+
+        // Push one loan into the past
+        BookCopy late = loans.get(0);
+        late.setDueDate(Instant.now().minus(1, ChronoUnit.DAYS));
+        bookCopyRepository.save(late);
+
+        overdueSweeper.sweep();
+
+        assertThat(bookCopyRepository.findById(late.getId()).orElseThrow().isOverdue()).isTrue();
+        assertThat(bookCopyRepository.findById(loans.get(1).getId()).orElseThrow().isOverdue()).isFalse();
+        assertThat(watermarkRepository.findById(OverdueSweeper.WATERMARK).orElseThrow().getLastId())
+                .isEqualTo(late.getId());
+    }
+
+    @Test
+    void testReturnClearsDueDate() {
+        Book book = newBook("Working Effectively with Legacy Code", "0131177052", 1);
+        bookService.borrowBook(book.getId(), user);
+        bookService.returnBook(book.getId(), user);
+
+        BookCopy copy = bookCopyRepository.findAll().get(0);
+        assertThat(copy.isAvailable()).isTrue();
+        assertThat(copy.getDueDate()).isNull();
+        assertThat(copy.isOverdue()).isFalse();
+    }
+
+    private Book newBook(String title, String isbn, int copies) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setIsbn(isbn);
+        book.setTotalCopies(copies);
+        return bookService.saveBook(book);
+    }
+}
@@ -0,0 +1,117 @@
+package com.library.app.library.stats;
+
+import com.library.app.library.branch.BranchContext;
+import com.library.app.library.model.Book;
+import com.library.app.library.repository.BookRepository;
+import com.library.app.library.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CatalogStatsServiceTest {
+
+    @Autowired
+    private CatalogStatsService catalogStatsService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setup() {
+        bookRepository.deleteAll();
+        catalogStatsService.reconcile();
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void testRecountRacingWithACommitCountsTheWriteOnce() throws Exception {
+        AtomicReference<CompletableFuture<Integer>> recount = new AtomicReference<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Runs after the book is committed but before its change reaches the counters
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recount.set(CompletableFuture.supplyAsync(catalogStatsService::reconcile));
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            Book book = new Book();
+            book.setTitle("Effective Java");
+            book.setAuthor("Joshua Bloch");
+            book.setIsbn("0134685991");
+            bookService.saveBook(book);
+        });
+
+        assertThat(recount.get().get(10, TimeUnit.SECONDS)).isZero();
+        CatalogStats stats = catalogStatsService.getStats(BranchContext.ALL_BRANCHES, 10);
+        assertThat(stats.titles()).isEqualTo(1);
+        assertThat(stats.copies()).isEqualTo(1);
+        assertThat(stats.topAuthors()).containsExactly(new AuthorCount("Joshua Bloch", 1));
+    }
+
+    @Test
+    void testWritesDuringRecountsAreCountedOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+        try {
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        Book book = new Book();
+                        book.setTitle("Title " + writer + "-" + i);
+                        book.setAuthor("Author " + writer);
+                        book.setIsbn("isbn-" + writer + "-" + i);
+                        bookService.saveBook(book);
+                    }
+                }));
+            }
+            while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                catalogStatsService.reconcile();
+            }
+            for (Future<?> writer : writers) {
+                writer.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CatalogStats stats = catalogStatsService.getStats(BranchContext.ALL_BRANCHES, 10);
+        assertThat(stats.titles()).isEqualTo(100);
+        assertThat(stats.copies()).isEqualTo(100);
+        assertThat(catalogStatsService.reconcile()).isZero();
+    }
+}
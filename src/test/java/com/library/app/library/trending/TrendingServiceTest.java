@@ -0,0 +1,78 @@
+package com.library.app.library.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TrendingServiceTest {
+
+    @Test
+    void testKeepsHighestScoringTitlesInOrder() {
+        TrendingService trending = new TrendingService(Duration.ofHours(1), 4, Duration.ofHours(1), 3, 1, 5);
+
+        for (long bookId = 1; bookId <= 10; bookId++) {
+            for (int views = 0; views < bookId; views++) {
+                trending.recordView(bookId);
+            }
+        }
+        // One borrow weighs five views
+        trending.record(2, 5);
+        trending.record(2, 5);
+
+        assertThat(trending.trending(3)).extracting(TrendingBook::bookId).containsExactly(2L, 10L, 9L);
+        assertThat(trending.trending(1)).containsExactly(new TrendingBook(2, 12));
+
+        // Rebuilding against the same window keeps the ranking
+        trending.closeWindow();
+        assertThat(trending.trending(3)).extracting(TrendingBook::bookId).containsExactly(2L, 10L, 9L);
+    }
+
+    @Test
+    void testOlderWindowsDecay() throws Exception {
+        // Windows of 50 ms halving every window
+        TrendingService trending = new TrendingService(Duration.ofMillis(50), 8, Duration.ofMillis(50), 5, 1, 5);
+        for (int i = 0; i < 8; i++) {
+            trending.recordView(1);
+        }
+        waitForNextWindow(50);
+        trending.closeWindow();
+        trending.recordView(2);
+
+        List<TrendingBook> top = trending.trending(5);
+        assertThat(top).extracting(TrendingBook::bookId).containsExactly(1L, 2L);
+        // Age is at least one window, so the old views count half or less
+        assertThat(top.get(0).score()).isLessThanOrEqualTo(4.0).isGreaterThan(1.0);
+        assertThat(top.get(1).score()).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void testConcurrentRecordsAreAllCounted() throws Exception {
+        TrendingService trending = new TrendingService(Duration.ofHours(1), 4, Duration.ofHours(1), 5, 1, 5);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    trending.recordView(1 + i % 4);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(trending.trending(5)).extracting(TrendingBook::score).containsOnly(20_000.0);
+    }
+
+    private static void waitForNextWindow(long windowMillis) throws InterruptedException {
+        long window = System.currentTimeMillis() / windowMillis;
+        while (System.currentTimeMillis() / windowMillis == window) {
+            Thread.sleep(5);
+        }
+    }
+}
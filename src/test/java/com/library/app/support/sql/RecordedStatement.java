@@ -0,0 +1,20 @@
+package com.library.app.support.sql;
+
+import net.ttddyy.dsproxy.QueryType;
+
+import java.util.List;
+
+/**
+ * One statement executed through the recording data source. Batched statements are recorded
+ * once with the number of parameter sets in {@code batchSize} and the first set in
+ * {@code parameters}.
+ */
+public record RecordedStatement(QueryType type, String sql, List<Object> parameters, int batchSize,
+                                long elapsedMillis) {
+
+    @Override
+    public String toString() {
+        String batch = batchSize > 1 ? " batch=" + batchSize : "";
+        return "[" + type + ", " + elapsedMillis + " ms" + batch + "] " + sql + " " + parameters;
+    }
+}
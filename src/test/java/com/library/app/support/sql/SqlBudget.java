@@ -0,0 +1,153 @@
+package com.library.app.support.sql;
+
+import net.ttddyy.dsproxy.QueryType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fails a MockMvc request whose SQL exceeds a budget, listing every statement the request ran:
+ * <pre>
+ * mockMvc.perform(get("/api/books"))
+ *         .andExpect(sqlBudget().maxSelects(3).maxUpdates(0).noFullScans().requireFilter("books", "branch"));
+ * </pre>
+ * Needs {@link SqlRecorderConfiguration} in the test context.
+ */
+public class SqlBudget implements ResultMatcher {
+
+    // H2 annotates each table access; a schema-qualified index or tableScan without ": condition" reads everything
+    private static final Pattern FULL_SCAN = Pattern.compile("/\\* (\\w+\\.[\\w.]+) \\*/");
+
+    private final Map<QueryType, Integer> maxByType = new EnumMap<>(QueryType.class);
+    private Integer maxStatements;
+    private Duration maxTotalTime;
+    private boolean noFullScans;
+    private final Map<String, String> requiredFilters = new LinkedHashMap<>();
+
+    public static SqlBudget sqlBudget() {
+        return new SqlBudget();
+    }
+
+    public SqlBudget maxSelects(int max) {
+        maxByType.put(QueryType.SELECT, max);
+        return this;
+    }
+
+    public SqlBudget maxInserts(int max) {
+        maxByType.put(QueryType.INSERT, max);
+        return this;
+    }
+
+    public SqlBudget maxUpdates(int max) {
+        maxByType.put(QueryType.UPDATE, max);
+        return this;
+    }
+
+    public SqlBudget maxDeletes(int max) {
+        maxByType.put(QueryType.DELETE, max);
+        return this;
+    }
+
+    public SqlBudget maxStatements(int max) {
+        maxStatements = max;
+        return this;
+    }
+
+    // Summed execution time of all statements, as measured around each JDBC call
+    public SqlBudget maxTotalTime(Duration max) {
+        maxTotalTime = max;
+        return this;
+    }
+
+    /**
+     * Rejects filtered statements (with a {@code where} clause) that the H2 planner answers by
+     * reading a whole table or index, which usually means a missing index or a predicate that
+     * cannot use one. Unfiltered page and count queries are expected to scan and are not checked.
+     */
+    public SqlBudget noFullScans() {
+        noFullScans = true;
+        return this;
+    }
+
+    /**
+     * Requires every SELECT, UPDATE and DELETE reading {@code table} to restrict {@code column}
+     * in its {@code where} clause, e.g. the partition key of a partitioned table.
+     */
+    public SqlBudget requireFilter(String table, String column) {
+        requiredFilters.put(table.toLowerCase(Locale.ROOT), column.toLowerCase(Locale.ROOT));
+        return this;
+    }
+
+    @Override
+    public void match(MvcResult result) {
+        Object attribute = result.getRequest().getAttribute(SqlRecording.ATTRIBUTE);
+        if (!(attribute instanceof SqlRecording recording)) {
+            throw new AssertionError("No SQL recorded for the request; import SqlRecorderConfiguration");
+        }
+        List<RecordedStatement> statements = recording.getStatements();
+        List<String> violations = new ArrayList<>();
+
+        maxByType.forEach((type, max) -> {
+            long count = statements.stream().filter(statement -> statement.type() == type).count();
+            if (count > max) {
+                violations.add(count + " " + type + " statements, budget " + max);
+            }
+        });
+        if (maxStatements != null && statements.size() > maxStatements) {
+            violations.add(statements.size() + " statements, budget " + maxStatements);
+        }
+        if (maxTotalTime != null) {
+            long total = statements.stream().mapToLong(RecordedStatement::elapsedMillis).sum();
+            if (total > maxTotalTime.toMillis()) {
+                violations.add(total + " ms in SQL, budget " + maxTotalTime.toMillis() + " ms");
+            }
+        }
+        if (noFullScans) {
+            for (RecordedStatement statement : statements) {
+                if (isFiltered(statement)) {
+                    String plan = recording.plan(statement).replaceAll("\\s+", " ");
+                    Matcher scan = FULL_SCAN.matcher(plan);
+                    if (scan.find()) {
+                        violations.add("full scan of " + scan.group(1) + ": " + statement.sql() + "\n      plan: " + plan);
+                    }
+                }
+            }
+        }
+
+        requiredFilters.forEach((table, column) -> {
+            Pattern reads = Pattern.compile("\\b(from|update|join) " + Pattern.quote(table) + "\\b");
+            Pattern filter = Pattern.compile("\\bwhere\\b.*\\b" + Pattern.quote(column) + "\\s*(=|in\\b)");
+            for (RecordedStatement statement : statements) {
+                String sql = statement.sql().toLowerCase(Locale.ROOT);
+                if (statement.type() != QueryType.INSERT && reads.matcher(sql).find() && !filter.matcher(sql).find()) {
+                    violations.add("no " + column + " filter on " + table + ": " + statement.sql());
+                }
+            }
+        });
+
+        if (!violations.isEmpty()) {
+            StringBuilder message = new StringBuilder("SQL budget exceeded for ")
+                    .append(result.getRequest().getMethod()).append(' ')
+                    .append(result.getRequest().getRequestURI()).append(':');
+            violations.forEach(violation -> message.append("\n  - ").append(violation));
+            message.append("\nStatements:");
+            statements.forEach(statement -> message.append("\n  ").append(statement));
+            throw new AssertionError(message.toString());
+        }
+    }
+
+    private static boolean isFiltered(RecordedStatement statement) {
+        QueryType type = statement.type();
+        return (type == QueryType.SELECT || type == QueryType.UPDATE || type == QueryType.DELETE)
+                && statement.sql().toLowerCase(Locale.ROOT).contains(" where ");
+    }
+}
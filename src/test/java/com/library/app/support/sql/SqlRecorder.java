@@ -0,0 +1,62 @@
+package com.library.app.support.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * datasource-proxy listener that records the statements executed on the current thread between
+ * {@link #start()} and {@link #stop()}. MockMvc runs the whole filter chain on the test thread,
+ * so a request's statements are all seen here.
+ */
+public class SqlRecorder implements QueryExecutionListener {
+
+    private static final ThreadLocal<List<RecordedStatement>> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new ArrayList<>());
+    }
+
+    // Stops recording and returns what was executed since start()
+    public static List<RecordedStatement> stop() {
+        List<RecordedStatement> statements = CURRENT.get();
+        CURRENT.remove();
+        return statements != null ? statements : List.of();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<RecordedStatement> statements = CURRENT.get();
+        if (statements == null) {
+            return;
+        }
+        for (QueryInfo query : queryInfoList) {
+            List<List<ParameterSetOperation>> parameterSets = query.getParametersList();
+            List<Object> parameters = parameterSets.isEmpty() ? List.of() : values(parameterSets.get(0));
+            statements.add(new RecordedStatement(QueryUtils.getQueryType(query.getQuery()), query.getQuery(),
+                    parameters, Math.max(1, parameterSets.size()), execInfo.getElapsedTime()));
+        }
+    }
+
+    private static List<Object> values(List<ParameterSetOperation> operations) {
+        List<ParameterSetOperation> sorted = new ArrayList<>(operations);
+        sorted.sort(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]));
+        List<Object> values = new ArrayList<>(sorted.size());
+        for (ParameterSetOperation operation : sorted) {
+            // setNull(index, sqlType) carries the type, not a value
+            boolean setNull = "setNull".equals(operation.getMethod().getName());
+            values.add(setNull ? null : operation.getArgs()[1]);
+        }
+        return values;
+    }
+}
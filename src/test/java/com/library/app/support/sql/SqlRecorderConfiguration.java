@@ -0,0 +1,45 @@
+package com.library.app.support.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Import into a MockMvc test to record the SQL of every request and check it with
+ * {@link SqlBudget}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlRecorderConfiguration {
+
+    @Bean
+    public static BeanPostProcessor sqlRecordingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("recorded")
+                            .listener(new SqlRecorder())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlRecordingFilter> sqlRecordingFilter(DataSource dataSource) {
+        DataSource target = dataSource instanceof ProxyDataSource proxy ? proxy.getDataSource() : dataSource;
+        FilterRegistrationBean<SqlRecordingFilter> registration =
+                new FilterRegistrationBean<>(new SqlRecordingFilter(target));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.app.support.sql;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Statements recorded for one MockMvc request, stored as a request attribute by
+ * {@link SqlRecordingFilter}.
+ */
+public class SqlRecording {
+
+    static final String ATTRIBUTE = SqlRecording.class.getName();
+
+    private final List<RecordedStatement> statements;
+    private final JdbcTemplate planner;
+
+    SqlRecording(List<RecordedStatement> statements, DataSource targetDataSource) {
+        this.statements = List.copyOf(statements);
+        this.planner = new JdbcTemplate(targetDataSource);
+    }
+
+    public List<RecordedStatement> getStatements() {
+        return statements;
+    }
+
+    // H2 query plan of the statement, with the recorded parameters bound
+    public String plan(RecordedStatement statement) {
+        return planner.query("explain " + statement.sql(), ps -> {
+            for (int i = 0; i < statement.parameters().size(); i++) {
+                ps.setObject(i + 1, statement.parameters().get(i));
+            }
+        }, rs -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1));
+            }
+            return plan.toString();
+        });
+    }
+}
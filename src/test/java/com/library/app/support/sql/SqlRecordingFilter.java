@@ -0,0 +1,34 @@
+package com.library.app.support.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Records the statements of each request, including the user lookup done by the security
+ * filters, and leaves them on the request for {@link SqlBudget}.
+ */
+public class SqlRecordingFilter extends OncePerRequestFilter {
+
+    private final DataSource targetDataSource;
+
+    SqlRecordingFilter(DataSource targetDataSource) {
+        this.targetDataSource = targetDataSource;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlRecorder.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            request.setAttribute(SqlRecording.ATTRIBUTE, new SqlRecording(SqlRecorder.stop(), targetDataSource));
+        }
+    }
+}